@@ -0,0 +1,76 @@
+/***************************************************************************************************
+ * This class benchmarks building a playable level from a parsed one (PPController.makeLevel), the
+ * work done for every level of a world when it is loaded. PPController is in the default package, so
+ * it is reached by reflection. A controller is built from the shipped world first, so the benchmarks
+ * run from the root folder (or the folder given by the pp.folder property).
+ ***************************************************************************************************/
+package model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MLevelBench {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int tiles;
+	private MLevelTemplate template;
+	private Object controller;
+	private Method makeLevel;
+	private List<?> levels, levelKeys;
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Generates the level and builds the controller it is made into a playable level by
+	 * @throws ReflectiveOperationException thrown if the controller couldn't be built
+	 **************************************************************************************************/
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		this.template = MSyntheticLevel.template(this.tiles);
+		Class<?> type = Class.forName("PPController");
+		this.controller = type.getConstructor(Class.forName("PPView"), String.class, String.class, String.class, long.class)
+				.newInstance(null, System.getProperty("pp.folder", "src/"), "data/assets.dat", "data/world1.wrld", 7L);
+		this.makeLevel = type.getDeclaredMethod("makeLevel", MLevelTemplate.class);
+		this.makeLevel.setAccessible(true);
+		this.levels = (List<?>) field(type, "levels");
+		this.levelKeys = (List<?>) field(type, "levelKeys");
+	}
+	private Object field(Class<?> type, String name) throws ReflectiveOperationException {
+		Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(this.controller);
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Builds the playable level, then takes it back out of the controller so its levels don't grow
+	 * @return MLevel built
+	 * @throws ReflectiveOperationException thrown if makeLevel couldn't be called
+	 **************************************************************************************************/
+	@Benchmark
+	public MLevel makeLevel() throws ReflectiveOperationException {
+		MLevel level = (MLevel) this.makeLevel.invoke(this.controller, this.template);
+		this.levels.remove(this.levels.size() - 1);
+		this.levelKeys.remove(this.levelKeys.size() - 1);
+		return level;
+	}
+}
@@ -0,0 +1,89 @@
+/***************************************************************************************************
+ * This class benchmarks the collision hot paths of a tick: moving the player horizontally and
+ * vertically through a level, and the bounding box test against every obstacle of a level. Movement
+ * should cost the same whatever the size of the level, since only the tiles and obstacles along the
+ * path are looked at; the bounding box test over every obstacle grows with the level.
+ ***************************************************************************************************/
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MMovementBench {
+	public final static int SPEED = 8;		//Pixels moved horizontally per call, as when running
+	public final static int JUMP = 24;		//Pixels moved vertically per call, staying under the platforms
+	//Attribute(s)--------------------------------------------------------------------------------------
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int tiles;
+	private MCharacter player;
+	private double startX, startY, endX;
+	private int dirX = 1, dirY = -1;
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Generates the level and places the player at its start
+	 **************************************************************************************************/
+	@Setup
+	public void setup() {
+		MLevelTemplate template = MSyntheticLevel.template(this.tiles);
+		this.player = MSyntheticLevel.makePlayer(template);
+		this.startX = this.player.getX();
+		this.startY = this.player.getY();
+		this.endX = template.getWidth() - 3 * MWorld.BLOCK_SIZE;
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Runs the player along the lane, turning back at either end of the level
+	 * @return MToken touched by the movement
+	 **************************************************************************************************/
+	@Benchmark
+	public MToken moveX() {
+		MToken token = this.player.moveX(this.dirX * SPEED);
+		if ((this.dirX > 0 && this.player.getX() >= this.endX) || (this.dirX < 0 && this.player.getX() <= this.startX)) {this.dirX = -this.dirX;}
+		return token;
+	}
+	/***************************************************************************************************
+	 * Hops the player up and back down onto the ground, a block further along the lane each time
+	 * @return MToken touched by the movement
+	 **************************************************************************************************/
+	@Benchmark
+	public MToken moveY() {
+		MToken token = this.player.moveY(this.dirY * JUMP);
+		this.dirY = -this.dirY;
+		if (this.dirY < 0) {
+			double x = this.player.getX() + MWorld.BLOCK_SIZE;
+			this.player.setPos((x > this.endX ? this.startX : x), this.startY);
+		}
+		return token;
+	}
+	/***************************************************************************************************
+	 * Tests the bounding box of the player against every obstacle of the level
+	 * @return The number of obstacles the player intersects
+	 **************************************************************************************************/
+	@Benchmark
+	public int intersects() {
+		int hits = 0;
+		for (MPlatform obstacle: this.player.obstacles) {
+			if (this.player.intersects(obstacle)) {hits++;}
+		}
+		return hits;
+	}
+}
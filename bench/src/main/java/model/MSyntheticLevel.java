@@ -0,0 +1,90 @@
+/***************************************************************************************************
+ * This class generates levels of any size for the benchmarks, so the cost of the engine can be
+ * measured from levels the size of the shipped ones up to levels far larger. A level is a strip of
+ * ground with a running lane above it, holding the player and a token every few blocks, under rows
+ * of randomly placed platforms and spikes. The same size always generates the same level.
+ ***************************************************************************************************/
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Scanner;
+
+public class MSyntheticLevel {
+	public final static int ROWS = 32;
+	public final static int LANE = ROWS - 2;		//The row the player runs along
+	public final static int TOKEN_SPACING = 16;	//Columns between the tokens of the lane
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the image of each character of a level, as read from the assets file
+	 * @return HashMap of the image of each character
+	 **************************************************************************************************/
+	public static HashMap<Character, String> assets() {
+		HashMap<Character, String> assets = new HashMap<Character, String>();
+		assets.put('0', "images/red_brick.png");
+		assets.put('1', "images/blue_brick.png");
+		assets.put('^', "images/spike.png");
+		assets.put('S', "images/gumball.png");
+		assets.put('G', "images/gumball_girl.png");
+		assets.put('T', "images/power_orb.png");
+		return assets;
+	}
+	/***************************************************************************************************
+	 * Generates the text of a level
+	 * @param tiles as int - The number of cells of the level, ROWS high
+	 * @return String of the level in the text format
+	 **************************************************************************************************/
+	public static String text(int tiles) {
+		int cols = Math.max(8, tiles / ROWS);
+		Random random = new Random(tiles);
+		StringBuilder text = new StringBuilder(ROWS * (cols + 1));
+		for (int row=0; row<ROWS; row++) {
+			for (int col=0; col<cols; col++) {
+				char c = ' ';
+				if (row == ROWS - 1) {c = '0';}
+				else if (row == LANE) {
+					if (col == 1) {c = 'S';}
+					else if (col == cols - 2) {c = 'G';}
+					else if (col % TOKEN_SPACING == TOKEN_SPACING / 2) {c = 'T';}
+				}
+				else if (row >= 2 && row < LANE - 2) {
+					double roll = random.nextDouble();
+					if (roll < 0.12) {c = '1';}
+					else if (roll < 0.13) {c = '^';}
+				}
+				text.append(c);
+			}
+			text.append('\n');
+		}
+		return text.toString();
+	}
+	/***************************************************************************************************
+	 * Generates a level
+	 * @param tiles as int - The number of cells of the level, ROWS high
+	 * @return MLevelTemplate of the level
+	 **************************************************************************************************/
+	public static MLevelTemplate template(int tiles) {
+		return MLevelTemplate.parse(new Scanner(text(tiles)), assets());
+	}
+	/***************************************************************************************************
+	 * Builds the player of a level, colliding with its tokens and tiles the way a game level does
+	 * @param template as MLevelTemplate - The level
+	 * @return MCharacter of the player, standing on the ground of the lane
+	 **************************************************************************************************/
+	public static MCharacter makePlayer(MLevelTemplate template) {
+		MCharacter player = null;
+		ArrayList<MPlatform> obstacles = new ArrayList<MPlatform>();
+		for (int i=0; i<template.getEntityCount(); i++) {
+			char c = template.getKind(i);
+			int x = template.getEntityX(i), y = template.getEntityY(i);
+			if (c == 'S') {player = new MCharacter(x, y, template.getAsset(c), null);}
+			else {obstacles.add(new MToken(x, y, template.getAsset(c), null, (c == 'G' ? -1 : 0), c == 'T'));}
+		}
+		player.setObstacles(obstacles);
+		player.setCollisionGrid(new MCollisionGrid(obstacles));
+		player.setTileMap(template.makeTileMap());
+		return player;
+	}
+}
@@ -1,3 +1,5 @@
+import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
 import java.awt.Toolkit;
 
 import javafx.application.Application;
@@ -9,9 +11,18 @@ import javafx.application.Application;
  ******************************************************************************************************/
 public class PP {
 	//Attribute(s)--------------------------------------------------------------------------------------
-	public final static int HEIGHT = Toolkit.getDefaultToolkit().getScreenSize().height;
-	public final static int WIDTH = Toolkit.getDefaultToolkit().getScreenSize().width;
+	public final static int HEIGHT = getScreenSize().height;
+	public final static int WIDTH = getScreenSize().width;
+	public final static int TICK_RATE = 60;
 	
+	/***************************************************************************************************
+	 * Returns the size of the screen, or a 1920x1080 screen when there isn't a display (headless runs)
+	 * @return Dimension of the screen
+	 **************************************************************************************************/
+	private static Dimension getScreenSize() {
+		if (GraphicsEnvironment.isHeadless()) {return new Dimension(1920, 1080);}
+		return Toolkit.getDefaultToolkit().getScreenSize();
+	}
 	/***************************************************************************************************
 	 * Opens the puzzle platformer application
 	 * @param args as String[] - Arguments passed in the command line launch to augment program function
@@ -0,0 +1,376 @@
+/*******************************************************************************************************
+ * This class saves the game in the background while it is played. It observes the model, and for each
+ * change worth keeping (a pickup, a gate used, a level change, a death or a position checkpoint) it
+ * encodes a small record and hands it to a background thread, which appends it to a journal next to
+ * the autosave. Every so often the whole state is written as a new autosave and the journal starts
+ * over. Loading the autosave replays the journal on top of it.
+ *
+ * The autosave is replaced atomically (written to a temporary file and moved over the old one), and
+ * a record cut short by a crash is ignored when the journal is replayed, so a crash never loses more
+ * than the records that hadn't reached the disk. Every record sets state rather than changing it, so
+ * replaying records the autosave already includes does no harm. Each autosave has a generation (the
+ * timestamp in its header, never the same twice) that its journal starts with, so a journal left over
+ * from an older autosave, by a crash between writing the autosave and starting its journal, is ignored
+ * rather than replayed over newer state.
+ *
+ * Journal record: byte type, short length, then the record (big endian). The first is the generation.
+ ******************************************************************************************************/
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import model.MCharacter;
+import model.MLevel;
+import model.MToken;
+
+public class PPAutosave implements Observer {
+	public final static byte CHARACTER = 1, PICKUP = 2, GATE = 3, LEVEL = 4, TOKENS = 5, GENERATION = 6;
+	public final static int COMPACT_RECORDS = 256;				//Records journaled before the state is written out again
+	public final static long CHECKPOINT_NANOS = 2000000000L;	//Time between position checkpoints
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private File saveFile, journalFile;
+	private PPController controller;
+	private int playerID = 0;
+	private LinkedBlockingQueue<Job> jobs = new LinkedBlockingQueue<Job>();
+	private Thread writer;
+
+	//State of the game already journaled
+	private int records = 0;
+	private long generation = 0;
+	private long lastCheckpoint = 0;
+	private int lastHealth, lastTokens;
+	private HashSet<Integer> gates = new HashSet<Integer>();
+	private boolean changed = false;	//Whether the game has changed since it was handed over
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate an autosave and start its background thread
+	 * @param saveFile The file the state is written to, the journal is kept next to it
+	 ***************************************************************************************************/
+	public PPAutosave(File saveFile) {
+		this.saveFile = saveFile;
+		this.journalFile = journalFile(saveFile);
+		this.writer = new Thread(this::write, "PPAutosave");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Starts saving another game. Its state is only written out once it first changes, so starting the
+	 * application (or loading a game) doesn't replace the autosave before it can be loaded. Games that
+	 * can't be written with PPSaveCodec (loaded from an old save) aren't autosaved.
+	 * @param controller The controller of the game being played
+	 ***************************************************************************************************/
+	public void setController(PPController controller) {
+		if (this.controller != null) {this.controller.removeObserver(this);}
+		this.controller = (controller.hasState() ? controller : null);
+		this.gates.clear();
+		if (this.controller == null) {return;}
+		this.controller.addObserver(this);
+		MCharacter player = this.controller.getCharacter(this.playerID);
+		this.lastHealth = player.getHealth();
+		this.lastTokens = player.getTokenCount();
+		this.changed = false;
+	}
+	/***************************************************************************************************
+	 * Waits until every record journaled so far has reached the disk, without writing the state out
+	 ***************************************************************************************************/
+	public void flush() {
+		CountDownLatch done = new CountDownLatch(1);
+		this.jobs.add(new Job(done));
+		try {
+			done.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {Thread.currentThread().interrupt();}
+	}
+	/***************************************************************************************************
+	 * Writes out whatever is still waiting and stops the background thread
+	 ***************************************************************************************************/
+	public void shutdown() {
+		if (this.controller != null && this.changed) {compact();}
+		this.jobs.add(new Job(null, false));
+		try {
+			this.writer.join(5000);
+		} catch (InterruptedException e) {Thread.currentThread().interrupt();}
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the journal kept next to a save file (the same name with the .journal extension)
+	 * @param saveFile The save file
+	 * @return File of the journal
+	 ***************************************************************************************************/
+	public static File journalFile(File saveFile) {
+		String name = saveFile.getName();
+		if (name.lastIndexOf('.') != -1) {name = name.substring(0, name.lastIndexOf('.'));}
+		return new File(saveFile.getAbsoluteFile().getParentFile(), name + ".journal");
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Journals the changes to the game worth keeping. Called on the game loop, so it only encodes the
+	 * records and never waits for the disk.
+	 * @param model The model of the game
+	 * @param obj The object that changed
+	 ***************************************************************************************************/
+	@Override
+	public void update(Observable model, Object obj) {
+		if (this.controller == null) {return;}
+		MLevel level = this.controller.getCurrentLevel();
+		//The first change writes the whole state out, starting the game's journal
+		if (!this.changed) {
+			this.changed = true;
+			compact();
+		}
+		try {
+			//Level change, and a new world is a good point to write the whole state out
+			if (obj.getClass() == Boolean.class) {
+				if ((Boolean) obj) {compact();}
+				else {
+					int world = this.controller.getWorldIndex();
+					journal(LEVEL, out -> {
+						out.writeByte(world);
+						out.writeInt(level.ID);
+					});
+				}
+			}
+			//Pickups (the token is already gone from the level) and gates used
+			else if (obj.getClass() == MToken.class) {
+				MToken o = (MToken) obj;
+				if (o.isConsumable() && !level.getTokens().containsKey(o.ID)) {
+					journal(PICKUP, out -> {
+						out.writeInt(level.ID);
+						out.writeInt(o.ID);
+					});
+					journalTokens();
+				}
+				else if (o.isStateChanged() && this.gates.add(o.ID)) {
+					journal(GATE, out -> {
+						out.writeInt(level.ID);
+						out.writeInt(o.ID);
+					});
+				}
+			}
+			//Deaths, damage and position checkpoints of the player
+			else if (obj.getClass() == MCharacter.class && ((MCharacter) obj).ID == this.playerID) {
+				MCharacter o = (MCharacter) obj;
+				long now = System.nanoTime();
+				if (o.getHealth() != this.lastHealth || o.getTokenCount() != this.lastTokens || now - this.lastCheckpoint >= CHECKPOINT_NANOS) {
+					journal(CHARACTER, out -> {
+						out.writeInt(level.ID);
+						this.controller.writeCharacter(out, o);
+					});
+					journalTokens();
+					this.lastHealth = o.getHealth();
+					this.lastTokens = o.getTokenCount();
+					this.lastCheckpoint = now;
+				}
+			}
+			if (this.records >= COMPACT_RECORDS) {compact();}
+		} catch (IOException e) {e.printStackTrace(System.err);}
+	}
+	/***************************************************************************************************
+	 * Replays a journal onto a game loaded from the save it was kept next to. Replaying stops at the
+	 * first record that is cut short, and nothing is replayed if the journal belongs to another
+	 * generation of the save.
+	 * @param controller The controller of the loaded game
+	 * @param journalFile The journal
+	 * @param generation The generation of the save (the timestamp in its header)
+	 * @throws IOException thrown if the journal couldn't be read
+	 ***************************************************************************************************/
+	public static void replay(PPController controller, File journalFile, long generation) throws IOException {
+		if (!journalFile.isFile()) {return;}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+			boolean matched = false;
+			while (true) {
+				byte type;
+				byte[] bytes;
+				try {
+					type = in.readByte();
+					bytes = new byte[in.readUnsignedShort()];
+					in.readFully(bytes);
+				} catch (EOFException e) {return;}
+
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+				if (!matched) {
+					if (type != GENERATION || bytes.length != 8 || record.readLong() != generation) {return;}
+					matched = true;
+				}
+				else if (type == LEVEL) {
+					controller.setCurrent(record.readByte(), record.readInt());
+				}
+				else if (type == TOKENS) {
+					controller.setTokenCount(record.readInt(), record.readInt());
+				}
+				else {
+					int levelID = record.readInt();
+					if (levelID < 0 || levelID >= controller.getLevelCount()) {continue;}
+					MLevel level = controller.getLevel(levelID);
+					if (type == CHARACTER) {controller.readCharacter(record, level);}
+					else if (type == PICKUP) {controller.removeObject(level, record.readInt());}
+					else if (type == GATE) {controller.useGate(level, record.readInt());}
+				}
+			}
+		}
+	}
+	/***************************************************************************************************
+	 * Journals the player's token count
+	 * @throws IOException thrown if the record couldn't be encoded
+	 ***************************************************************************************************/
+	private void journalTokens() throws IOException {
+		int count = this.controller.getTokenCount(this.playerID);
+		journal(TOKENS, out -> {
+			out.writeInt(this.playerID);
+			out.writeInt(count);
+		});
+	}
+	/***************************************************************************************************
+	 * Encodes a record and queues it for the journal
+	 * @param type The type of the record
+	 * @param body Writes the body of the record
+	 * @throws IOException thrown if the record couldn't be encoded
+	 ***************************************************************************************************/
+	private void journal(byte type, Body body) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(type);
+		out.writeShort(0);
+		body.write(out);
+		byte[] record = bytes.toByteArray();
+		record[1] = (byte) ((record.length - 3) >> 8);
+		record[2] = (byte) (record.length - 3);
+		this.jobs.add(new Job(record, false));
+		this.records++;
+	}
+	/***************************************************************************************************
+	 * Encodes the whole state of the game and queues it to replace the autosave and start the journal
+	 * over, with the generation of the new autosave
+	 ***************************************************************************************************/
+	private void compact() {
+		try {
+			long generation = Math.max(System.currentTimeMillis(), this.generation + 1);
+			this.jobs.add(new Job(PPSaveCodec.encode(this.controller, generation), true));
+			this.generation = generation;
+			journal(GENERATION, out -> out.writeLong(generation));
+			this.records = 0;
+		} catch (IOException e) {e.printStackTrace(System.err);}
+	}
+	/***************************************************************************************************
+	 * Runs on the background thread, appending records to the journal and replacing the autosave. A
+	 * write that fails drops the journal, so the records after it are lost until the next autosave is
+	 * written and starts a new one, but the thread keeps going.
+	 ***************************************************************************************************/
+	private void write() {
+		FileOutputStream journal = null;
+		ArrayList<Job> batch = new ArrayList<Job>();
+		while (true) {
+			batch.clear();
+			try {
+				batch.add(this.jobs.take());
+			} catch (InterruptedException e) {break;}
+			this.jobs.drainTo(batch);
+			for (Job job: batch) {
+				if (job.flushed != null) {continue;}
+				if (job.bytes == null) {	//Shut down
+					close(journal);
+					return;
+				}
+				try {
+					if (job.snapshot) {
+						close(journal);
+						journal = null;
+						writeAtomically(job.bytes);
+						journal = new FileOutputStream(this.journalFile, false);
+					}
+					else if (journal != null) {journal.write(job.bytes);}
+				} catch (IOException e) {
+					e.printStackTrace(System.err);
+					close(journal);
+					journal = null;
+				}
+			}
+			if (journal != null) {
+				try {
+					journal.flush();
+					journal.getFD().sync();
+				} catch (IOException e) {
+					e.printStackTrace(System.err);
+					close(journal);
+					journal = null;
+				}
+			}
+			for (Job job: batch) {
+				if (job.flushed != null) {job.flushed.countDown();}
+			}
+		}
+		close(journal);
+	}
+	/***************************************************************************************************
+	 * Closes the journal, if it is open
+	 * @param journal The journal, null if it isn't open
+	 ***************************************************************************************************/
+	private static void close(FileOutputStream journal) {
+		if (journal == null) {return;}
+		try {
+			journal.close();
+		} catch (IOException e) {e.printStackTrace(System.err);}
+	}
+	/***************************************************************************************************
+	 * Replaces the autosave with new contents, so it is always either the old or the new autosave
+	 * @param bytes The new contents
+	 * @throws IOException thrown if the autosave couldn't be written
+	 ***************************************************************************************************/
+	private void writeAtomically(byte[] bytes) throws IOException {
+		File temp = new File(this.saveFile.getAbsoluteFile().getParentFile(), this.saveFile.getName() + ".tmp");
+		temp.getParentFile().mkdirs();
+		try (FileOutputStream out = new FileOutputStream(temp)) {
+			out.write(bytes);
+			out.getFD().sync();
+		}
+		try {
+			Files.move(temp.toPath(), this.saveFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), this.saveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/***************************************************************************************************
+	 * Writes the body of a journal record
+	 ***************************************************************************************************/
+	private interface Body {
+		void write(DataOutputStream out) throws IOException;
+	}
+	/***************************************************************************************************
+	 * Something for the background thread to write: a journal record, or a whole new autosave. A job
+	 * with a latch writes nothing, the latch is released once the jobs before it are on the disk.
+	 ***************************************************************************************************/
+	private static class Job {
+		private byte[] bytes;
+		private boolean snapshot;
+		private CountDownLatch flushed;
+
+		private Job(byte[] bytes, boolean snapshot) {
+			this.bytes = bytes;
+			this.snapshot = snapshot;
+		}
+		private Job(CountDownLatch flushed) {
+			this.flushed = flushed;
+		}
+	}
+}
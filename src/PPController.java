@@ -2,29 +2,54 @@
  * This class contains the methods that update game data and the view.
  * @author TLeD8
  ******************************************************************************************************/
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Observer;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import javafx.scene.input.KeyCode;
+import model.MAssetArchive;
 import model.MCharacter;
+import model.MCollisionGrid;
 import model.MLevel;
+import model.MLevelTemplate;
 import model.MPlatform;
+import model.MTemplateCache;
+import model.MTileMap;
 import model.MToken;
 import model.MWorld;
 
 public class PPController implements Serializable {
 	private static final long serialVersionUID = 6564815199745593313L;
+	public final static int JUMP = 1, LEFT = 2, RIGHT = 4;	//Movement inputs of a tick
 	//Attribute(s)--------------------------------------------------------------------------------------
 	private PPModel model;
 	private HashMap<Character, String> assets;
 	private String folderPath = "";
+	private transient long assetsModified = 0;
+	private String assetPath, worldPath;
+	private long seed;
+	private transient Random random;
+	private transient ArrayList<MLevel> levels = new ArrayList<MLevel>();
+	private transient ArrayList<int[]> levelKeys = new ArrayList<int[]>();
+	private transient MWorld firstWorld;
 	private int key = 1;
 	private int playerKey = 0;
+	private long ticks = 0;
+	private transient PPInputLog recorder;
 	
 	private HashMap<Integer, Integer[]> playerSpawn = new HashMap<Integer, Integer[]>();
 	//Constructor(s)------------------------------------------------------------------------------------
@@ -37,20 +62,58 @@ public class PPController implements Serializable {
 	 * @throws FileNotFoundException thrown if the underlying structures couldn't be accessed
 	 ***************************************************************************************************/
 	public PPController(PPView view, String folderPath, String assetPath, String worldPath) throws FileNotFoundException{
+		this(view, folderPath, assetPath, worldPath, new Random().nextLong());
+	}
+	/***************************************************************************************************
+	 * Constructs the PPController object with a seed, so the same seed always builds the same world.
+	 * @param view Represents the view that the game is displayed
+	 * @param folderPath Specifies the folder that assets are saved in
+	 * @param assetPath Represents the name of the assets file
+	 * @param worldPath Represents the name of file that the world is saved in
+	 * @param seed Seeds the layout of the levels, the starting level and the backgrounds
+	 * @throws FileNotFoundException thrown if the underlying structures couldn't be accessed
+	 ***************************************************************************************************/
+	public PPController(PPView view, String folderPath, String assetPath, String worldPath, long seed) throws FileNotFoundException{
 		this.folderPath = folderPath;
+		this.assetPath = assetPath;
+		this.worldPath = worldPath;
+		this.seed = seed;
+		this.random = new Random(seed);
 		setAssets(assetPath);
 		this.model = new PPModel();
 		setObserver(view);
-		this.model.setWorld(makeWorld(worldPath));
+		this.firstWorld = makeWorld(worldPath);
+		this.model.setWorld(this.firstWorld);
 	}
 	
 	//Mutator(s)----------------------------------------------------------------------------------------
 	/**************************************************************************************************
-	 * Assigns an observer to the model object for the view
-	 * @param view Object that is being added to the set of observers
+	 * Assigns an observer to the model object for the view, none when the game isn't displayed
+	 * @param view Object that is being added to the set of observers, null for none
 	 **************************************************************************************************/
 	public void setObserver(PPView view) {
-		this.model.addObserver(view);
+		if (view != null) {this.model.addObserver(view);}
+	}
+	/**************************************************************************************************
+	 * Assigns another observer to the model object, such as the autosave
+	 * @param observer Object that is being added to the set of observers
+	 **************************************************************************************************/
+	public void addObserver(Observer observer) {
+		this.model.addObserver(observer);
+	}
+	/***************************************************************************************************
+	 * Assigns the profiler that the phases of each tick are timed into
+	 * @param profiler Represents the profiler, such as the one the view shows
+	 **************************************************************************************************/
+	public void setProfiler(PPProfiler profiler) {
+		this.model.setProfiler(profiler);
+	}
+	/***************************************************************************************************
+	 * Records the inputs of every tick from now on, so the game can be replayed
+	 * @param recorder Represents the log the inputs are added to, null to stop recording
+	 **************************************************************************************************/
+	public void setRecorder(PPInputLog recorder) {
+		this.recorder = recorder;
 	}
 	/***************************************************************************************************
 	 * Assigns assets to this object according to assets file specified.
@@ -58,16 +121,8 @@ public class PPController implements Serializable {
 	 * @throws FileNotFoundException thrown if the assets couldn't be accessed
 	 **************************************************************************************************/
 	public void setAssets(String assetsPath) throws FileNotFoundException {
-		Scanner list = new Scanner(new File(this.folderPath + assetsPath));
-		HashMap<Character, String> assets = new HashMap<Character, String>();
-		//For valid asset mapping(s), build an asset map (valid mapping: "A=pathToImage.png")
-		while (list.hasNextLine()) {
-			String line = list.nextLine();
-			if (line.charAt(1) == '=') {
-				assets.put(line.charAt(0), this.folderPath + line.substring(2));
-			}
-		} list.close();
-		this.assets = assets;
+		this.assets = readAssets(this.folderPath, assetsPath);
+		this.assetsModified = new File(this.folderPath + assetsPath).lastModified();
 	}
 	/***************************************************************************************************
 	 * Removes the ID from the model
@@ -83,6 +138,20 @@ public class PPController implements Serializable {
 	public void removeObserver(PPView view) {
 		this.model.deleteObserver(view);
 	}
+	/***************************************************************************************************
+	 * Remove the given observer from the model
+	 * @param observer specifies the observer to remove from the model
+	 **************************************************************************************************/
+	public void removeObserver(Observer observer) {
+		this.model.deleteObserver(observer);
+	}
+	/***************************************************************************************************
+	 * Sets how long the game has been played, used when it is loaded from a save
+	 * @param playtime The time played in milliseconds
+	 **************************************************************************************************/
+	public void setPlaytime(long playtime) {
+		this.ticks = playtime * PP.TICK_RATE / 1000;
+	}
 	/***************************************************************************************************
 	 * Calls the model to respawn the character
 	 * @param ID Specifies the character that is being respawned
@@ -99,24 +168,315 @@ public class PPController implements Serializable {
 	}
 	
 	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Reads an assets file into a map of the image used by each character of a level
+	 * @param folderPath Specifies the folder that assets are saved in
+	 * @param assetsPath Name of the assets file.
+	 * @return A HashMap of each character to the path of its image
+	 * @throws FileNotFoundException thrown if the assets couldn't be accessed
+	 **************************************************************************************************/
+	public static HashMap<Character, String> readAssets(String folderPath, String assetsPath) throws FileNotFoundException {
+		Scanner list = openText(folderPath + assetsPath);
+		HashMap<Character, String> assets = new HashMap<Character, String>();
+		//For valid asset mapping(s), build an asset map (valid mapping: "A=pathToImage.png")
+		while (list.hasNextLine()) {
+			String line = list.nextLine();
+			if (line.charAt(1) == '=') {
+				assets.put(line.charAt(0), folderPath + line.substring(2));
+			}
+		} list.close();
+		return assets;
+	}
+	/***************************************************************************************************
+	 * Opens a text file of the game, from the asset archive when it packs the file
+	 * @param path The path of the file
+	 * @return Scanner of the file
+	 * @throws FileNotFoundException thrown if the file couldn't be accessed
+	 **************************************************************************************************/
+	private static Scanner openText(String path) throws FileNotFoundException {
+		InputStream packed = MAssetArchive.open(path);
+		if (packed != null) {return new Scanner(packed, "UTF-8");}
+		return new Scanner(new File(path));
+	}
+	/***************************************************************************************************
+	 * Returns the character specified from the current level
+	 * @param ID Specifies the character
+	 * @return MCharacter object that is returned
+	 **************************************************************************************************/
+	public MCharacter getCharacter(int ID) {
+		return this.model.getObject(ID);
+	}
+	/***************************************************************************************************
+	 * Returns the seed the world was built with
+	 * @return The seed of the world
+	 **************************************************************************************************/
+	public long getSeed() {
+		return this.seed;
+	}
+	public String getFolderPath() {return this.folderPath;}
+	public PPProfiler getProfiler() {return this.model.getProfiler();}
+	public String getAssetPath() {return this.assetPath;}
+	public String getWorldPath() {return this.worldPath;}
+	/***************************************************************************************************
+	 * Returns the level being played
+	 * @return MLevel that is being played
+	 **************************************************************************************************/
+	public MLevel getCurrentLevel() {
+		return this.model.getWorld().getCurrLevel();
+	}
+	/***************************************************************************************************
+	 * Returns a level of the game by its ID
+	 * @param ID The ID of the level, in the order the levels were built
+	 * @return MLevel with that ID
+	 **************************************************************************************************/
+	public MLevel getLevel(int ID) {
+		return this.levels.get(ID);
+	}
+	public int getLevelCount() {return this.levels == null ? 0 : this.levels.size();}
+	/***************************************************************************************************
+	 * Returns the world being played, as its index in the order the worlds link to each other
+	 * @return The index of the world, -1 if it can't be found
+	 **************************************************************************************************/
+	public int getWorldIndex() {
+		return getWorlds().indexOf(this.model.getWorld());
+	}
+	/***************************************************************************************************
+	 * Returns how long the game has been played, counted in ticks of the game loop
+	 * @return The time played in milliseconds
+	 **************************************************************************************************/
+	public long getPlaytime() {
+		return this.ticks * 1000 / PP.TICK_RATE;
+	}
+	/***************************************************************************************************
+	 * Returns the number of tokens a character has collected
+	 * @param ID Specifies the character
+	 * @return The number of tokens
+	 **************************************************************************************************/
+	public int getTokenCount(int ID) {
+		return this.model.getTokenCount(ID);
+	}
+	/***************************************************************************************************
+	 * Returns whether the game can be saved as its files and seed plus what has changed since, which
+	 * isn't the case for a game loaded from a save made with Java serialization.
+	 * @return True if the state of the game can be written with writeState
+	 **************************************************************************************************/
+	public boolean hasState() {
+		return this.worldPath != null && this.levels != null && this.firstWorld != null;
+	}
+	/***************************************************************************************************
+	 * Returns every world reachable from the first world built, in the order they link to each other
+	 * @return An ArrayList of the worlds
+	 **************************************************************************************************/
+	public ArrayList<MWorld> getWorlds() {
+		ArrayList<MWorld> worlds = new ArrayList<MWorld>();
+		for (MWorld w = this.firstWorld; w != null && !worlds.contains(w); w = w.getNextWorld()) {worlds.add(w);}
+		return worlds;
+	}
 	
 	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Writes what has changed in the game since the world was built: the current world and level, the
+	 * token counts, and for each level its characters, the objects removed and the gates used. Levels
+	 * are referred to by their ID, since the world itself is rebuilt from its files and seed.
+	 * @param out The stream the state is written to
+	 * @throws IOException thrown if the state couldn't be written
+	 **************************************************************************************************/
+	public void writeState(DataOutputStream out) throws IOException {
+		//Current level of each world, and the current world
+		ArrayList<MWorld> worlds = getWorlds();
+		out.writeByte(worlds.size());
+		for (MWorld w: worlds) {out.writeInt(w.getCurrLevel() == null ? -1 : w.getCurrLevel().ID);}
+		out.writeByte(worlds.indexOf(this.model.getWorld()));
+		
+		//Token counts
+		int[] tokenCounts = this.model.getTokenCounts();
+		out.writeShort(tokenCounts.length);
+		for (int ID=0; ID<tokenCounts.length; ID++) {
+			out.writeInt(ID);
+			out.writeInt(tokenCounts[ID]);
+		}
+		
+		//Each level's characters, removed objects and used gates
+		out.writeInt(this.levels.size());
+		for (MLevel level: this.levels) {
+			ArrayList<MCharacter> characters = new ArrayList<MCharacter>(level.getPlayers().values());
+			characters.addAll(level.getEnemies().values());
+			out.writeShort(characters.size());
+			for (MCharacter c: characters) {writeCharacter(out, c);}
+			
+			ArrayList<Integer> removed = new ArrayList<Integer>(), changed = new ArrayList<Integer>();
+			for (int ID=this.levelKeys.get(level.ID)[0]; ID<this.levelKeys.get(level.ID)[1]; ID++) {
+				if (findObject(level, ID) == null) {removed.add(ID);}
+				else if (level.getTokens().containsKey(ID) && level.getTokens().get(ID).isStateChanged()) {changed.add(ID);}
+			}
+			out.writeShort(removed.size());
+			for (int ID: removed) {out.writeInt(ID);}
+			out.writeShort(changed.size());
+			for (int ID: changed) {out.writeInt(ID);}
+		}
+	}
+	/***************************************************************************************************
+	 * Applies the state written by writeState to a world freshly built from the same files and seed
+	 * @param in The stream the state is read from
+	 * @throws IOException thrown if the state couldn't be read or doesn't match the world
+	 **************************************************************************************************/
+	public void readState(DataInputStream in) throws IOException {
+		//Current level of each world, and the current world
+		ArrayList<MWorld> worlds = getWorlds();
+		int worldCount = in.readByte();
+		for (int i=0; i<worldCount; i++) {
+			int ID = in.readInt();
+			if (i < worlds.size() && ID >= 0 && ID < this.levels.size()) {worlds.get(i).setCurrLevel(this.levels.get(ID));}
+		}
+		int current = in.readByte();
+		if (current < 0 || current >= worlds.size()) {throw new IOException("The saved world doesn't match the world files");}
+		this.model.setWorld(worlds.get(current));
+		
+		//Token counts
+		int counts = in.readShort();
+		for (int i=0; i<counts; i++) {this.model.setTokenCount(in.readInt(), in.readInt());}
+		
+		//Each level's characters, removed objects and used gates
+		if (in.readInt() != this.levels.size()) {throw new IOException("The saved levels don't match the world files");}
+		for (MLevel level: this.levels) {
+			int characters = in.readShort();
+			for (int i=0; i<characters; i++) {readCharacter(in, level);}
+			
+			int removed = in.readShort();
+			for (int i=0; i<removed; i++) {removeObject(level, in.readInt());}
+			int changed = in.readShort();
+			for (int i=0; i<changed; i++) {useGate(level, in.readInt());}
+		}
+	}
+	/***************************************************************************************************
+	 * Writes the state of a character
+	 * @param out The stream the state is written to
+	 * @param c The character
+	 * @throws IOException thrown if the state couldn't be written
+	 **************************************************************************************************/
+	public void writeCharacter(DataOutputStream out, MCharacter c) throws IOException {
+		out.writeInt(c.ID);
+		out.writeDouble(c.getX());
+		out.writeDouble(c.getY());
+		out.writeInt(c.getHealth());
+		out.writeInt(c.getTokenCount());
+		out.writeDouble(c.getVelocityY());
+		out.writeBoolean(c.canJump());
+	}
+	/***************************************************************************************************
+	 * Reads the state of a character written by writeCharacter and applies it to the level's character
+	 * @param in The stream the state is read from
+	 * @param level The level the character is in
+	 * @throws IOException thrown if the state couldn't be read
+	 **************************************************************************************************/
+	public void readCharacter(DataInputStream in, MLevel level) throws IOException {
+		int ID = in.readInt();
+		MCharacter c = (level.getPlayers().containsKey(ID) ? level.getPlayers().get(ID) : level.getEnemies().get(ID));
+		double x = in.readDouble(), y = in.readDouble();
+		int health = in.readInt(), tokens = in.readInt();
+		double velocityY = in.readDouble();
+		boolean canJump = in.readBoolean();
+		if (c == null) {return;}
+		c.setPos(x, y);
+		c.restoreHealth(health);
+		c.setTokenCount(tokens);
+		c.setMotion(velocityY, canJump);
+		c.storePrevious();
+	}
+	/***************************************************************************************************
+	 * Removes an object from a level and from the obstacles of the level's characters
+	 * @param level The level the object is in
+	 * @param ID The ID of the object
+	 **************************************************************************************************/
+	public void removeObject(MLevel level, int ID) {
+		MPlatform obj = findObject(level, ID);
+		if (obj == null) {return;}
+		for (MCharacter c: level.getPlayers().values()) {c.removeObstacle(obj);}
+		for (MCharacter c: level.getEnemies().values()) {c.removeObstacle(obj);}
+		level.removeObject(obj.ID);
+	}
+	/***************************************************************************************************
+	 * Changes the state of a gate (a token that isn't consumed) of a level
+	 * @param level The level the gate is in
+	 * @param ID The ID of the gate
+	 **************************************************************************************************/
+	public void useGate(MLevel level, int ID) {
+		MToken token = level.getTokens().get(ID);
+		if (token != null && !token.isStateChanged()) {token.stateChange();}
+	}
+	/***************************************************************************************************
+	 * Makes a world, and a level of it, the ones being played
+	 * @param world The index of the world, in the order the worlds link to each other
+	 * @param levelID The ID of the level
+	 **************************************************************************************************/
+	public void setCurrent(int world, int levelID) {
+		ArrayList<MWorld> worlds = getWorlds();
+		if (world < 0 || world >= worlds.size() || levelID < 0 || levelID >= this.levels.size()) {return;}
+		worlds.get(world).setCurrLevel(this.levels.get(levelID));
+		this.model.setWorld(worlds.get(world), false);
+	}
+	/***************************************************************************************************
+	 * Sets the number of tokens a character has collected
+	 * @param ID Specifies the character
+	 * @param count The number of tokens
+	 **************************************************************************************************/
+	public void setTokenCount(int ID, int count) {
+		this.model.setTokenCount(ID, count);
+	}
+	/***************************************************************************************************
+	 * Returns the object of a level with the given ID
+	 * @param level The level being searched
+	 * @param ID The ID of the object
+	 * @return The MPlatform object, null if the level doesn't have it
+	 **************************************************************************************************/
+	private MPlatform findObject(MLevel level, int ID) {
+		if (level.getTokens().containsKey(ID)) {return level.getTokens().get(ID);}
+		if (level.getEnemies().containsKey(ID)) {return level.getEnemies().get(ID);}
+		if (level.getPlayers().containsKey(ID)) {return level.getPlayers().get(ID);}
+		return level.getLevel().get(ID);
+	}
 	/***************************************************************************************************
 	 * Calls methods in the model to update its data according to what movement key was pressed
 	 * @param keys Contains what key was pressed
 	 * @param ID Specifies the character that is being updated
 	 **************************************************************************************************/
 	public void update(HashMap<KeyCode, Boolean> keys, int ID) {
+		update(getInput(keys), ID);
+	}
+	/***************************************************************************************************
+	 * Calls methods in the model to update its data according to the movement inputs of a tick. A game
+	 * is decided entirely by its seed and the inputs of each of its ticks, so it can be replayed from them.
+	 * @param input The movement inputs held, a combination of JUMP, LEFT and RIGHT
+	 * @param ID Specifies the character that is being updated
+	 **************************************************************************************************/
+	public void update(int input, int ID) {
+		long start = this.model.getProfiler().start();
+		if (this.recorder != null) {this.recorder.record(input);}
+		this.model.beginTick(ID, getPlaytime());
+		this.ticks++;
+		if ((input & JUMP) != 0) {model.jumpCharacter(ID, -30);}
+		if ((input & LEFT) != 0) {model.moveCharacter(ID, -5);}
+		if ((input & RIGHT) != 0) {model.moveCharacter(ID, 5);}
+		this.model.checkVelocity(ID);
+		this.model.getProfiler().end(PPProfiler.TICK, start);
+	}
+	/***************************************************************************************************
+	 * Returns the movement inputs that the keys held stand for
+	 * @param keys Contains what key was pressed
+	 * @return The inputs, a combination of JUMP, LEFT and RIGHT
+	 **************************************************************************************************/
+	public static int getInput(HashMap<KeyCode, Boolean> keys) {
+		int input = 0;
 		if (isPressed(KeyCode.W, keys) || isPressed(KeyCode.SPACE, keys) || isPressed(KeyCode.UP, keys) || isPressed(KeyCode.KP_UP, keys)) {
-			model.jumpCharacter(ID, -30);
+			input |= JUMP;
 		}
 		if (isPressed(KeyCode.A, keys) || isPressed(KeyCode.LEFT, keys) || isPressed(KeyCode.KP_LEFT, keys)) {
-			model.moveCharacter(ID, -5);
+			input |= LEFT;
 		}
 		if (isPressed(KeyCode.D, keys) || isPressed(KeyCode.RIGHT, keys) || isPressed(KeyCode.KP_RIGHT, keys)) {
-			model.moveCharacter(ID, 5);
+			input |= RIGHT;
 		}
-		this.model.checkVelocity(ID);
+		return input;
 	}
 	/***************************************************************************************************
 	 * Returns whether a key input matches the KeyCode parameter being passed
@@ -124,7 +484,7 @@ public class PPController implements Serializable {
 	 * @param keys Contains the key that the user pressed
 	 * @return True if the key pressed matches the KeyCode, false otherwise
 	 **************************************************************************************************/
-	private boolean isPressed(KeyCode code, HashMap<KeyCode, Boolean> keys) {
+	private static boolean isPressed(KeyCode code, HashMap<KeyCode, Boolean> keys) {
 		return keys.getOrDefault(code, false);
 	}
 	/***************************************************************************************************
@@ -134,62 +494,66 @@ public class PPController implements Serializable {
 	 **************************************************************************************************/
 	private String getRandomBackground(String modifier) {
 		String backgroundPath = "";
-		ArrayList<File> backgrounds = new ArrayList<File>();
-		for (File f: new File("bin/images/" + backgroundPath).listFiles()) {
-			if ((f.getName().indexOf("background") != -1) &&
-			    (f.getName().indexOf(modifier) != -1)) {backgrounds.add(f);}
+		ArrayList<String> backgrounds = new ArrayList<String>();
+		if (MAssetArchive.isLoaded()) {
+			for (String path: MAssetArchive.list("images/")) {
+				String name = path.substring(path.lastIndexOf('/') + 1);
+				if ((name.indexOf("background") != -1) && (name.indexOf(modifier) != -1)) {backgrounds.add(name);}
+			}
+		}
+		else {
+			for (File f: new File("bin/images/" + backgroundPath).listFiles()) {
+				if ((f.getName().indexOf("background") != -1) &&
+				    (f.getName().indexOf(modifier) != -1)) {backgrounds.add(f.getName());}
+			}
 		}
-		Collections.shuffle(backgrounds);
+		Collections.sort(backgrounds);	//The listing order isn't fixed, so sort before shuffling with the seed
+		Collections.shuffle(backgrounds, this.random);
 		
-		if (backgrounds.size() > 0) {backgroundPath = "images/" + backgrounds.get(0).getName();}
+		if (backgrounds.size() > 0) {backgroundPath = "images/" + backgrounds.get(0);}
 		return backgroundPath;
 	}
 	/***************************************************************************************************
-	 * Generates the world that contains the levels that are played on
+	 * Generates the world that contains the levels that are played on. The world files and levels are
+	 * read in parallel, then the world is built from them in file order so the seed decides the result.
 	 * @param worldPath Path of the folder that contains the world file
 	 * @return A MWorld object that represents a world
 	 * @throws FileNotFoundException
 	 **************************************************************************************************/
 	private MWorld makeWorld(String worldPath) throws FileNotFoundException {
-		Scanner world = new Scanner(new File(this.folderPath + worldPath));
+		try {
+			return makeWorld(ForkJoinPool.commonPool().invoke(new WorldTask(worldPath)));
+		} catch (RuntimeException e) {
+			//Pass on a level or world that couldn't be accessed as it would have been when read in order
+			for (Throwable t = e; t != null; t = t.getCause()) {
+				if (t instanceof FileNotFoundException) {throw (FileNotFoundException) t;}
+			}
+			throw e;
+		}
+	}
+	/***************************************************************************************************
+	 * Builds a world, and any world it links to, from its files once they have been read
+	 * @param plan The contents of the world file and its levels
+	 * @return A MWorld object that represents a world
+	 **************************************************************************************************/
+	private MWorld makeWorld(WorldPlan plan) {
 		ArrayList<MLevel> levels = new ArrayList<MLevel>();
-		ArrayList<ArrayList<Integer>> markers = new ArrayList<ArrayList<Integer>>();
+		ArrayList<ArrayList<Integer>> markers = plan.markers;
 		ArrayList<ArrayList<MLevel>> tempLevels = new ArrayList<ArrayList<MLevel>>();
 		MWorld next = new MWorld();
 		
-		//Get the grid for level layout and a list of the levels the world contains
-		int y=0;
-		while (world.hasNextLine()) {
-			String line = world.nextLine();
-			markers.add(new ArrayList<Integer>());
-			//Build out the grid for level(s)
-			if (line.length() != 0 && Character.isDigit(line.charAt(0))) {
-				for (int x=0; x<line.length(); x++) {
-					markers.get(y).add(Integer.parseInt(line.charAt(x) + ""));
-				}
-			}
-			//Or build the levels to store in the grid
-			else if (line.length() != 0 && line.charAt(0) == '=') {
-				int iPrev = 1;
-				for (int i=0; i<line.length(); i++) {
-					if (line.charAt(i) == '|') {
-						levels.add(makeLevel(line.substring(iPrev, i)));	//Add the path between the delimiter
-						iPrev = i+1;
-					}
-				}
+		//Build the levels to store in the grid
+		for (MLevelTemplate template: plan.templates) {levels.add(makeLevel(template));}
+		//And build another world to set as the next world
+		if (plan.next != null) {
+			try {
+				next = makeWorld(plan.next);
 			}
-			//Or build another world to set as the next world
-			else if (line.length() != 0 && line.charAt(0) == ':') {
-				try {
-					next = makeWorld(line.substring(1));
-				}
-				catch (Exception e) {}	//There isn't a valid other world to link to
-			}
-			y++;
-		} world.close();
+			catch (Exception e) {}	//There isn't a valid other world to link to
+		}
 		
 		//Randomly allocate all the levels as paired based on the layout grid
-		Collections.shuffle(levels);
+		Collections.shuffle(levels, this.random);
 		int countLevels = 0;
 		for (int i=0; i<markers.size() && countLevels<levels.size(); i++) {
 			tempLevels.add(new ArrayList<MLevel>());
@@ -226,7 +590,7 @@ public class PPController implements Serializable {
 		}
 		//Pick a random level to serve as the starting level
 		for (ArrayList<MLevel> a: tempLevels) {levels.addAll(a);}
-		Collections.shuffle(levels);
+		Collections.shuffle(levels, this.random);
 		MLevel lvl = null;
 		for (int i=0; i<levels.size() && lvl == null; i++) {lvl = levels.get(i);}
 		
@@ -235,9 +599,8 @@ public class PPController implements Serializable {
 		retWorld.setNextWorld(next);
 		if (levels.size() > 0) {retWorld.setCurrLevel(lvl);}
 		else {System.err.println("PPController.makeWorld() - Error: No levels found to build a world with.");}
-		Random rand = new Random();
 		if (next.getCurrLevel() != null) {
-			if (rand.nextBoolean()) {
+			if (this.random.nextBoolean()) {
 				next.setNextWorld(retWorld);
 				retWorld = next;
 			}
@@ -245,62 +608,80 @@ public class PPController implements Serializable {
 		return retWorld;
 	}
 	/***************************************************************************************************
-	 * Retrieves a level file that contains the data to generate a level to be played on
+	 * Reads a level file, reusing it if it has been read before and hasn't changed since. Otherwise the
+	 * compiled form is preferred when that is at least as new as the text file and the assets. A compiled
+	 * level that can't be read falls back to the text file.
 	 * @param lvlPath Represents the name of the level file
+	 * @return A MLevelTemplate holding the contents of the level
+	 * @throws FileNotFoundException thrown if the level couldn't be accessed
+	 **************************************************************************************************/
+	private MLevelTemplate loadTemplate(String lvlPath) throws FileNotFoundException {
+		File lvlFile = new File(this.folderPath + lvlPath);
+		MLevelTemplate template = MTemplateCache.get(lvlFile, this.assets);
+		if (template != null) {return template;}
+		
+		//A packed archive holds the compiled level (or else the text level) when it has been built
+		File lvbFile = MLevelTemplate.compiledFile(lvlFile);
+		ByteBuffer packed = MAssetArchive.get(lvbFile.getPath());
+		if (packed != null) {
+			try {
+				template = MLevelTemplate.read(packed, lvbFile.getPath(), this.folderPath);
+			} catch (IOException e) {
+				System.err.println("PPController.loadTemplate() - Error: " + e.getMessage() + ", reading the text level instead.");
+			}
+		}
+		else if (lvbFile.isFile() && lvbFile.lastModified() >= Math.max(lvlFile.lastModified(), this.assetsModified)) {
+			try {
+				template = MLevelTemplate.read(lvbFile, this.folderPath);
+			} catch (IOException e) {
+				System.err.println("PPController.loadTemplate() - Error: " + e.getMessage() + ", reading the text level instead.");
+			}
+		}
+		if (template == null) {template = MLevelTemplate.parse(openText(lvlFile.getPath()), this.assets);}
+		MTemplateCache.put(lvlFile, this.assets, template);
+		return template;
+	}
+	/***************************************************************************************************
+	 * Generates a level to be played on from the contents of its level file
+	 * @param template Represents the contents of the level file
 	 * @return A MLevel file
-	 * @throws FileNotFoundException
 	 **************************************************************************************************/
-	private MLevel makeLevel(String lvlPath) throws FileNotFoundException {
-		Scanner lvl = new Scanner(new File(this.folderPath + lvlPath));
+	private MLevel makeLevel(MLevelTemplate template) {
+		int firstKey = this.key;
 		HashMap<Integer, MCharacter> players = new HashMap<Integer, MCharacter>();
 		HashMap<Integer, MCharacter> enemies = new HashMap<Integer, MCharacter>();
 		HashMap<Integer, MToken> tokens = new HashMap<Integer, MToken>();
 		HashMap<Integer, MPlatform> level = new HashMap<Integer, MPlatform>();
 		
-		//Build the level based on the asset mappings, adding appropriate categories of character or platform as needed
-		int y=0;
-		int x=0;
-		while (lvl.hasNextLine()) {
-			String line = lvl.nextLine();
-			for (x=0; x<line.length(); x++) {
-				Character c = line.charAt(x);
-				if (Character.isDigit(c) || c == 's') {		//Platform [0-9]
-					MPlatform temp = new MPlatform(x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE, this.assets.get(c));
-					temp.ID = this.key++;
-					level.put(temp.ID, temp);
-				}
-				else if (c == '^') {			//Damage Platform [^]
-					MPlatform temp = new MPlatform(x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE, this.assets.get(c));
-					temp.setDamage(2);
-					temp.ID = this.key++;
-					level.put(temp.ID, temp);
-				}
-				else if (c == 'T') {			//Token [T] - GroupID 0
-					MToken temp = new MToken(x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE, this.assets.get(c), null, 0, true);
-					temp.ID = this.key++;
-					tokens.put(temp.ID, temp);
-				}
-				else if (c == 'E') {			///Token [E] - GroupID 1
-					MToken temp = new MToken(x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE, this.assets.get(c), this.assets.get(Character.toLowerCase(c)), 1, false);
-					temp.ID = this.key++;
-					tokens.put(temp.ID, temp);
-				}
-				else if (c == 'G') {			//Token [G] - Group -1 (Win condition)
-					MToken temp = new MToken(x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE, this.assets.get(c), null, -1, false);
-					temp.ID = this.key++;
-					tokens.put(temp.ID, temp);
-				}
-				else if (c == 'S') {			//Player [S]
-					MCharacter temp = new MCharacter(x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE, this.assets.get(c), null);
-					temp.ID = this.playerKey;
-					players.put(temp.ID, temp);
-					Integer arr[] = new Integer[] {x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE};
-					this.playerSpawn.put(temp.ID, arr);
-					temp.setSpawn(x*MWorld.BLOCK_SIZE, y*MWorld.BLOCK_SIZE);
-				}
+		//Build the level's objects from the entity table, adding appropriate categories of character or token as needed
+		for (int i=0; i<template.getEntityCount(); i++) {
+			char c = template.getKind(i);
+			int x = template.getEntityX(i), y = template.getEntityY(i);
+			if (c == 'T') {			//Token [T] - GroupID 0
+				MToken temp = new MToken(x, y, template.getAsset(c), null, 0, true);
+				temp.ID = this.key++;
+				tokens.put(temp.ID, temp);
+			}
+			else if (c == 'E') {	///Token [E] - GroupID 1
+				MToken temp = new MToken(x, y, template.getAsset(c), template.getAsset(Character.toLowerCase(c)), 1, false);
+				temp.ID = this.key++;
+				tokens.put(temp.ID, temp);
+			}
+			else if (c == 'G') {	//Token [G] - Group -1 (Win condition)
+				MToken temp = new MToken(x, y, template.getAsset(c), null, -1, false);
+				temp.ID = this.key++;
+				tokens.put(temp.ID, temp);
 			}
-			y++;
-		} lvl.close();
+			else if (c == 'S') {	//Player [S]
+				MCharacter temp = new MCharacter(x, y, template.getAsset(c), null);
+				temp.ID = this.playerKey;
+				players.put(temp.ID, temp);
+				Integer arr[] = new Integer[] {x, y};
+				this.playerSpawn.put(temp.ID, arr);
+				temp.setSpawn(x, y);
+			}
+		}
+		MTileMap tileMap = template.makeTileMap();
 		
 		//Set any player's obstacle(s)
 		for (MCharacter player: players.values()) {
@@ -309,19 +690,96 @@ public class PPController implements Serializable {
 			temp.addAll(level.values());
 			temp.addAll(tokens.values());
 			player.setObstacles(temp);
+			player.setCollisionGrid(new MCollisionGrid(temp));
+			player.setTileMap(tileMap);
 		}
 		//Set any enemy's obstacle(s)
 		for (MCharacter enemy: enemies.values()) {
 			ArrayList<MPlatform> temp = new ArrayList<MPlatform>();
 			temp.addAll(level.values());
 			enemy.setObstacles(temp);
+			enemy.setCollisionGrid(new MCollisionGrid(temp));
+			enemy.setTileMap(tileMap);
 		}
 		
-		MLevel retLvl = new MLevel(level, y*MWorld.BLOCK_SIZE, x*MWorld.BLOCK_SIZE);
+		MLevel retLvl = new MLevel(level, template.getHeight(), template.getWidth());
+		retLvl.ID = this.levels.size();
+		this.levels.add(retLvl);
+		this.levelKeys.add(new int[] {firstKey, this.key});
+		retLvl.setTileMap(tileMap);
 		retLvl.setBackground(getRandomBackground(""), PP.HEIGHT, PP.WIDTH);
 		retLvl.setTokens(tokens);
 		retLvl.setPlayers(players);
 		retLvl.setEnemies(enemies);
 		return retLvl;
 	}
-}
\ No newline at end of file
+	
+	/***************************************************************************************************
+	 * Holds the contents of a world file, with its levels and the world it links to already read.
+	 ***************************************************************************************************/
+	private static class WorldPlan {
+		private ArrayList<ArrayList<Integer>> markers = new ArrayList<ArrayList<Integer>>();
+		private ArrayList<MLevelTemplate> templates = new ArrayList<MLevelTemplate>();
+		private WorldPlan next;
+	}
+	/***************************************************************************************************
+	 * Reads a world file, forking a task for each of its levels and for the world it links to.
+	 ***************************************************************************************************/
+	private class WorldTask extends RecursiveTask<WorldPlan> {
+		private static final long serialVersionUID = -5094378105924562262L;
+		private String worldPath;
+		
+		public WorldTask(String worldPath) {
+			this.worldPath = worldPath;
+		}
+		@Override
+		protected WorldPlan compute() {
+			WorldPlan plan = new WorldPlan();
+			ArrayList<ForkJoinTask<MLevelTemplate>> levels = new ArrayList<ForkJoinTask<MLevelTemplate>>();
+			WorldTask next = null;
+			Scanner world;
+			try {
+				world = openText(folderPath + this.worldPath);
+			} catch (FileNotFoundException e) {throw new UncheckedIOException(e);}
+			
+			//Get the grid for level layout and a list of the levels the world contains
+			int y=0;
+			while (world.hasNextLine()) {
+				String line = world.nextLine();
+				plan.markers.add(new ArrayList<Integer>());
+				//Build out the grid for level(s)
+				if (line.length() != 0 && Character.isDigit(line.charAt(0))) {
+					for (int x=0; x<line.length(); x++) {
+						plan.markers.get(y).add(Integer.parseInt(line.charAt(x) + ""));
+					}
+				}
+				//Or read the levels to store in the grid
+				else if (line.length() != 0 && line.charAt(0) == '=') {
+					int iPrev = 1;
+					for (int i=0; i<line.length(); i++) {
+						if (line.charAt(i) == '|') {
+							String lvlPath = line.substring(iPrev, i);	//Add the path between the delimiter
+							levels.add(ForkJoinTask.adapt(() -> loadTemplate(lvlPath)).fork());
+							iPrev = i+1;
+						}
+					}
+				}
+				//Or read another world to set as the next world
+				else if (line.length() != 0 && line.charAt(0) == ':') {
+					next = new WorldTask(line.substring(1));
+					next.fork();
+				}
+				y++;
+			} world.close();
+			
+			for (ForkJoinTask<MLevelTemplate> level: levels) {plan.templates.add(level.join());}
+			if (next != null) {
+				try {
+					plan.next = next.join();
+				}
+				catch (Exception e) {}	//There isn't a valid other world to link to
+			}
+			return plan;
+		}
+	}
+}
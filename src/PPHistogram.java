@@ -0,0 +1,77 @@
+/*******************************************************************************************************
+ * This class counts how long something took in a fixed set of buckets, so percentiles can be read back
+ * without keeping every sample. Buckets grow with the time measured (16 to each power of two), keeping
+ * every percentile within about 6% of the real value from a nanosecond up to hours. Recording is an
+ * array increment, with no allocation.
+ ******************************************************************************************************/
+import java.util.Arrays;
+
+public class PPHistogram {
+	private final static int SUB_BITS = 4;
+	private final static int SUB_BUCKETS = 1 << SUB_BITS;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private long[] counts = new long[(64 - SUB_BITS) * SUB_BUCKETS];
+	private long count = 0;
+	private long max = 0;
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Counts a measured time
+	 * @param nanos The time in nanoseconds
+	 **************************************************************************************************/
+	public void record(long nanos) {
+		if (nanos < 0) {nanos = 0;}
+		this.counts[bucket(nanos)]++;
+		this.count++;
+		if (nanos > this.max) {this.max = nanos;}
+	}
+	/***************************************************************************************************
+	 * Forgets every time counted
+	 **************************************************************************************************/
+	public void reset() {
+		Arrays.fill(this.counts, 0);
+		this.count = 0;
+		this.max = 0;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public long getCount() {return this.count;}
+	public long getMax() {return this.max;}
+	/***************************************************************************************************
+	 * Returns the time that the given share of the times counted are at or under
+	 * @param percentile The share, from 0 to 100
+	 * @return The time in nanoseconds (the top of its bucket, never above the max), 0 if none were counted
+	 **************************************************************************************************/
+	public long getPercentile(double percentile) {
+		if (this.count == 0) {return 0;}
+		long rank = Math.max(1, (long) Math.ceil(this.count * percentile / 100));
+		long seen = 0;
+		for (int i=0; i<this.counts.length; i++) {
+			seen += this.counts[i];
+			if (seen >= rank) {return Math.min(top(i), this.max);}
+		}
+		return this.max;
+	}
+	/***************************************************************************************************
+	 * Returns the bucket a time is counted in
+	 * @param nanos The time in nanoseconds
+	 * @return The index of the bucket
+	 **************************************************************************************************/
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {return (int) nanos;}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+	}
+	/***************************************************************************************************
+	 * Returns the largest time counted in a bucket
+	 * @param bucket The index of the bucket
+	 * @return The time in nanoseconds
+	 **************************************************************************************************/
+	private static long top(int bucket) {
+		if (bucket < SUB_BUCKETS) {return bucket;}
+		int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+		long sub = bucket & (SUB_BUCKETS - 1);
+		return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+	}
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************************************
+ * This class records the inputs of every tick of a game, so the game can be replayed exactly: a game is
+ * decided by the files and seed its world is built from and the inputs of each tick. Inputs are kept a
+ * byte per tick while recording, and written as runs of the same input, since they rarely change from
+ * one tick to the next. The state the game ended in is kept too, so a replay can tell if it diverged.
+ *
+ * Layout (big endian): int magic ("PPIN"), short version, folder, assets file, world file (each as
+ * DataOutput UTF), long seed, int player ID, int screen width, int screen height (gates are placed
+ * relative to the screen), int tick count, the end state (UTF, empty if unknown), then runs of a byte
+ * input and the number of ticks it was held for (7 bits per byte, lowest first) until every tick is
+ * covered.
+ ******************************************************************************************************/
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import model.MCharacter;
+
+public class PPInputLog {
+	public final static int MAGIC = 0x5050494E;
+	public final static short VERSION = 1;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private String folderPath, assetPath, worldPath;
+	private long seed;
+	private int playerID;
+	private int width = PP.WIDTH, height = PP.HEIGHT;
+	private byte[] inputs = new byte[1024];
+	private int ticks = 0;
+	private String end = "";
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Starts a log for a game that hasn't been played yet
+	 * @param controller The controller of the game
+	 * @param playerID The character that the inputs move
+	 **************************************************************************************************/
+	public PPInputLog(PPController controller, int playerID) {
+		this.folderPath = controller.getFolderPath();
+		this.assetPath = controller.getAssetPath();
+		this.worldPath = controller.getWorldPath();
+		this.seed = controller.getSeed();
+		this.playerID = playerID;
+	}
+	private PPInputLog() {}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Adds the inputs of a tick
+	 * @param input The movement inputs held, a combination of PPController.JUMP, LEFT and RIGHT
+	 **************************************************************************************************/
+	public void record(int input) {
+		if (this.ticks == this.inputs.length) {this.inputs = Arrays.copyOf(this.inputs, this.inputs.length * 2);}
+		this.inputs[this.ticks++] = (byte) input;
+	}
+	/***************************************************************************************************
+	 * Keeps the state the game is in once the last tick is recorded, to compare replays with
+	 * @param controller The controller of the game
+	 **************************************************************************************************/
+	public void finish(PPController controller) {
+		this.end = getState(controller, this.playerID);
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public long getSeed() {return this.seed;}
+	public int getPlayerID() {return this.playerID;}
+	public int getTicks() {return this.ticks;}
+	public int getInput(int tick) {return this.inputs[tick];}
+	public int getWidth() {return this.width;}
+	public int getHeight() {return this.height;}
+	public String getEnd() {return this.end;}
+	/***************************************************************************************************
+	 * Returns the state of a game that is compared between the recording and a replay: the world and
+	 * level played, and the player's position, health and tokens
+	 * @param controller The controller of the game
+	 * @param playerID The player
+	 * @return String describing the state
+	 **************************************************************************************************/
+	public static String getState(PPController controller, int playerID) {
+		MCharacter player = controller.getCharacter(playerID);
+		return "world " + controller.getWorldIndex() + " level " + controller.getCurrentLevel().ID + " at " + player.getX() + "," + player.getY()
+				+ " health " + player.getHealth() + " tokens " + controller.getTokenCount(playerID);
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Builds the game the log was recorded from, as it was before its first tick, without a view
+	 * @return PPController of the game
+	 * @throws FileNotFoundException thrown if the files the world is built from couldn't be accessed
+	 **************************************************************************************************/
+	public PPController newGame() throws FileNotFoundException {
+		return new PPController(null, this.folderPath, this.assetPath, this.worldPath, this.seed);
+	}
+	/***************************************************************************************************
+	 * Writes the log
+	 * @param file The file written
+	 * @throws IOException thrown if the log couldn't be written
+	 **************************************************************************************************/
+	public void write(File file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeUTF(this.folderPath);
+			out.writeUTF(this.assetPath);
+			out.writeUTF(this.worldPath);
+			out.writeLong(this.seed);
+			out.writeInt(this.playerID);
+			out.writeInt(this.width);
+			out.writeInt(this.height);
+			out.writeInt(this.ticks);
+			out.writeUTF(this.end);
+			for (int tick=0; tick<this.ticks;) {
+				int run = 1;
+				while (tick + run < this.ticks && this.inputs[tick + run] == this.inputs[tick]) {run++;}
+				out.writeByte(this.inputs[tick]);
+				for (int left=run; ; left>>>=7) {
+					if (left < 0x80) {out.writeByte(left); break;}
+					out.writeByte((left & 0x7F) | 0x80);
+				}
+				tick += run;
+			}
+		}
+	}
+	/***************************************************************************************************
+	 * Reads a log
+	 * @param file The file read
+	 * @return PPInputLog read
+	 * @throws IOException thrown if the file couldn't be read or isn't an input log
+	 **************************************************************************************************/
+	public static PPInputLog read(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) {throw new IOException("Not an input log: " + file);}
+			short version = in.readShort();
+			if (version != VERSION) {throw new IOException("Unsupported input log version " + version + ": " + file);}
+			PPInputLog log = new PPInputLog();
+			log.folderPath = in.readUTF();
+			log.assetPath = in.readUTF();
+			log.worldPath = in.readUTF();
+			log.seed = in.readLong();
+			log.playerID = in.readInt();
+			log.width = in.readInt();
+			log.height = in.readInt();
+			log.ticks = in.readInt();
+			log.end = in.readUTF();
+			log.inputs = new byte[Math.max(1, log.ticks)];
+			for (int tick=0; tick<log.ticks;) {
+				byte input = in.readByte();
+				int run = 0;
+				for (int shift=0; ; shift+=7) {
+					int b = in.readUnsignedByte();
+					run |= (b & 0x7F) << shift;
+					if (b < 0x80) {break;}
+				}
+				if (run <= 0 || tick + run > log.ticks) {throw new IOException("Corrupt input log: " + file);}
+				Arrays.fill(log.inputs, tick, tick + run, input);
+				tick += run;
+			}
+			return log;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************************************
+ * This class is an optional build step that compiles the text levels of a world, and of every world it
+ * links to, into the binary level format read by PPController. Levels are still authored as text; a
+ * compiled level is only used while it is at least as new as its text file and the assets file.
+ *
+ * Usage: java PPLevelCompiler src/ data/assets.dat data/world1.wrld [more worlds...]
+ ******************************************************************************************************/
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Scanner;
+import model.MLevelTemplate;
+
+public class PPLevelCompiler {
+	/***************************************************************************************************
+	 * Compiles the levels of the given worlds
+	 * @param args The folder, the assets file and one or more world files (relative to the folder)
+	 * @throws IOException thrown if a file couldn't be read or written
+	 **************************************************************************************************/
+	public static void main(String[] args) throws IOException {
+		String folderPath = args[0];
+		HashMap<Character, String> assets = PPController.readAssets(folderPath, args[1]);
+
+		//Collect the levels of every world reachable from the ones given
+		ArrayList<String> worlds = new ArrayList<String>();
+		ArrayList<String> levels = new ArrayList<String>();
+		for (int i=2; i<args.length; i++) {worlds.add(args[i]);}
+		for (int w=0; w<worlds.size(); w++) {
+			File worldFile = new File(folderPath + worlds.get(w));
+			if (!worldFile.isFile()) {continue;}
+			Scanner world = new Scanner(worldFile);
+			while (world.hasNextLine()) {
+				String line = world.nextLine();
+				if (line.length() != 0 && line.charAt(0) == '=') {
+					int iPrev = 1;
+					for (int i=0; i<line.length(); i++) {
+						if (line.charAt(i) == '|') {
+							if (!levels.contains(line.substring(iPrev, i))) {levels.add(line.substring(iPrev, i));}
+							iPrev = i+1;
+						}
+					}
+				}
+				else if (line.length() > 1 && line.charAt(0) == ':' && !worlds.contains(line.substring(1))) {
+					worlds.add(line.substring(1));
+				}
+			} world.close();
+		}
+
+		//Compile each level next to its text file
+		for (String lvlPath: levels) {
+			File lvlFile = new File(folderPath + lvlPath);
+			File lvbFile = MLevelTemplate.compiledFile(lvlFile);
+			MLevelTemplate.parse(lvlFile, assets).write(lvbFile, folderPath);
+			System.out.println("PPLevelCompiler - " + lvlFile + " -> " + lvbFile);
+		}
+	}
+}
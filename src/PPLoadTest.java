@@ -0,0 +1,291 @@
+/*******************************************************************************************************
+ * This class measures how many games one JVM can run at the same time, as for bot playtests or checking
+ * runs on a server. For each number of sessions it builds that many independent games without a view,
+ * drives them with scripted inputs on a pool of threads a second of game time at a time, and reports
+ * the ticks run per second, how long a session took to run each second of game time, and the heap used.
+ *
+ * It also points out what the sessions share, since that is what stops them from scaling: the screen
+ * size read once from AWT (PP.WIDTH/HEIGHT), the static fields of the game's classes, the time threads
+ * spent blocked on each other's locks, and whether running the sessions together changed how they play
+ * out compared with running them one at a time.
+ *
+ * Usage: java PPLoadTest [sessions, e.g. 1,2,4,8] [threads] [pool: forkjoin, fixed or virtual] [seconds]
+ * Exits with 1 if a session played out differently when run with others.
+ ******************************************************************************************************/
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+public class PPLoadTest {
+	public final static int COMPARED = 4;	//Sessions replayed alone afterwards to check they played out the same
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private int threads;
+	private String pool;
+	private int seconds;
+	private boolean collect = false;	//Whether garbage is collected before the heap is measured
+	private String row = "";
+	private ArrayList<String> diverged = new ArrayList<String>();
+	private ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+	private MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Constructs a load test
+	 * @param threads The number of threads the sessions are run on
+	 * @param pool The kind of pool: forkjoin, fixed or virtual (a thread per session, Java 21 or later)
+	 * @param seconds The game time each session is run for, in seconds
+	 **************************************************************************************************/
+	public PPLoadTest(int threads, String pool, int seconds) {
+		this.threads = threads;
+		this.pool = pool;
+		this.seconds = seconds;
+		if (this.threadBean.isThreadContentionMonitoringSupported()) {this.threadBean.setThreadContentionMonitoringEnabled(true);}
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the line of the report for the last run
+	 * @return String of the line, empty before the first run
+	 **************************************************************************************************/
+	public String getRow() {return this.row;}
+	/***************************************************************************************************
+	 * Returns the sessions of the last run that played out differently than they did alone
+	 * @return ArrayList of a description of each
+	 **************************************************************************************************/
+	public ArrayList<String> getDiverged() {return this.diverged;}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Runs the load test for each number of sessions
+	 * @param args The numbers of sessions, the threads, the kind of pool and the game time per session
+	 * @throws Exception thrown if a session couldn't be built or failed while running
+	 **************************************************************************************************/
+	public static void main(String[] args) throws Exception {
+		String[] counts = (args.length > 0 ? args[0] : "1,2,4,8,16,32").split(",");
+		int threads = (args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+		PPLoadTest test = new PPLoadTest(threads, (args.length > 2 ? args[2] : "forkjoin"), (args.length > 3 ? Integer.parseInt(args[3]) : 60));
+		test.collect = true;
+
+		//Shared state - the screen size is read from AWT once, by whichever session gets to it first
+		long start = System.nanoTime();
+		int width = PP.WIDTH, height = PP.HEIGHT;
+		System.out.println(String.format("PPLoadTest - Screen %dx%d read from AWT in %.1f ms, shared by every session (gates are placed by it)",
+				width, height, (System.nanoTime() - start) / 1e6));
+		System.out.println("PPLoadTest - Static fields shared by every session:");
+		for (String field: getSharedFields()) {System.out.println("\t" + field);}
+
+		System.out.println(String.format("PPLoadTest - %d s of game time per session on %d %s threads", test.seconds, threads, test.pool));
+		System.out.println(String.format("%9s %12s %11s %11s %11s %10s %12s %10s",
+				"sessions", "ticks/s", "p50 ms/s", "p99 ms/s", "max ms/s", "heap MB", "blocked ms", "realtime"));
+		new Session(0).run(test.seconds * PP.TICK_RATE);		//Warm up the JIT, so the first row doesn't measure it
+		boolean diverged = false;
+		for (String count: counts) {
+			diverged |= (test.run(Integer.parseInt(count.trim())) > 0);
+			System.out.println(test.getRow());
+			for (String session: test.getDiverged()) {System.out.println("PPLoadTest - " + session);}
+		}
+		if (diverged) {System.exit(1);}
+	}
+	/***************************************************************************************************
+	 * Runs a number of sessions together, keeping a line of the report (see getRow), then runs the
+	 * first few alone to check that they play out the same
+	 * @param count The number of sessions
+	 * @return The number of sessions that played out differently when run with the others
+	 * @throws Exception thrown if a session couldn't be built or failed while running
+	 **************************************************************************************************/
+	public int run(int count) throws Exception {
+		//Build the sessions, measuring the heap they take
+		long heapBefore = usedHeap();
+		ArrayList<Session> sessions = new ArrayList<Session>();
+		for (int i=0; i<count; i++) {sessions.add(new Session(i));}
+		long heapSessions = Math.max(0, usedHeap() - heapBefore), heapPeak = 0;
+
+		//Run a second of game time of every session at a time, timing each
+		PPHistogram latency = new PPHistogram();
+		Set<Long> workers = ConcurrentHashMap.newKeySet();
+		ArrayList<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (Session session: sessions) {tasks.add(() -> {
+			workers.add(Thread.currentThread().getId());
+			return session.run(PP.TICK_RATE);
+		});}
+		ExecutorService executor = newPool();
+		long start = System.nanoTime(), nanos, blocked;
+		try {
+			for (int second=0; second<this.seconds; second++) {
+				for (Future<Long> task: executor.invokeAll(tasks)) {latency.record(task.get());}
+				heapPeak = Math.max(heapPeak, this.memoryBean.getHeapMemoryUsage().getUsed());
+			}
+			nanos = System.nanoTime() - start;
+			blocked = blockedTime(workers);		//While the pool's threads are still alive
+		} finally {executor.shutdown();}
+
+		long ticks = (long) count * this.seconds * PP.TICK_RATE;
+		double ticksPerSecond = ticks / (nanos / 1e9);
+		this.row = String.format("%9d %12.0f %11.2f %11.2f %11.2f %10s %12s %10.0f",
+				count, ticksPerSecond, latency.getPercentile(50) / 1e6, latency.getPercentile(99) / 1e6, latency.getMax() / 1e6,
+				String.format("%.1f/%.0f", heapSessions / 1048576.0 / count, heapPeak / 1048576.0),
+				(blocked < 0 ? "n/a" : String.valueOf(blocked)), ticksPerSecond / PP.TICK_RATE);
+
+		//Sessions run alone should play out the same as they did together
+		this.diverged.clear();
+		for (int i=0; i<Math.min(COMPARED, count); i++) {
+			Session alone = new Session(i);
+			alone.run(this.seconds * PP.TICK_RATE);
+			String together = sessions.get(i).getState(), expected = alone.getState();
+			if (!together.equals(expected)) {
+				this.diverged.add("Session " + i + " diverged when run with others: " + together + " instead of " + expected);
+			}
+		}
+		return this.diverged.size();
+	}
+	/***************************************************************************************************
+	 * Builds the pool the sessions are run on
+	 * @return ExecutorService of the pool
+	 * @throws ReflectiveOperationException thrown if virtual threads couldn't be started
+	 **************************************************************************************************/
+	private ExecutorService newPool() throws ReflectiveOperationException {
+		if (this.pool.equals("fixed")) {return Executors.newFixedThreadPool(this.threads);}
+		//Virtual threads came after the Java this game is built for, so they are looked up when asked for
+		if (this.pool.equals("virtual")) {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (NoSuchMethodException e) {
+				System.err.println("PPLoadTest.newPool() - Virtual threads need Java 21 or later, using fork-join threads instead.");
+				this.pool = "forkjoin";
+			}
+		}
+		return new ForkJoinPool(this.threads);
+	}
+	/***************************************************************************************************
+	 * Returns the heap in use, once garbage has been collected when running from main
+	 * @return The heap used in bytes
+	 **************************************************************************************************/
+	private long usedHeap() {
+		if (this.collect) {System.gc();}
+		return this.memoryBean.getHeapMemoryUsage().getUsed();
+	}
+	/***************************************************************************************************
+	 * Returns the time the given threads have spent blocked on locks held by other threads
+	 * @param workers The IDs of the threads, started for this run
+	 * @return The time in milliseconds, -1 if it isn't measured (as for virtual threads)
+	 **************************************************************************************************/
+	private long blockedTime(Set<Long> workers) {
+		if (!this.threadBean.isThreadContentionMonitoringEnabled() || this.pool.equals("virtual")) {return -1;}
+		long blocked = 0;
+		for (long worker: workers) {
+			ThreadInfo info = this.threadBean.getThreadInfo(worker);
+			if (info != null) {blocked += info.getBlockedTime();}
+		}
+		return blocked;
+	}
+	/***************************************************************************************************
+	 * Returns the static fields of the game's classes that can change while the game runs: the ones that
+	 * aren't final, and the final ones that hold objects rather than values
+	 * @return ArrayList of the fields, as class.field : type
+	 * @throws IOException thrown if the classes couldn't be listed
+	 **************************************************************************************************/
+	public static ArrayList<String> getSharedFields() throws IOException {
+		ArrayList<String> shared = new ArrayList<String>();
+		for (String name: getClassNames()) {
+			Class<?> type;
+			try {
+				type = Class.forName(name, false, PPLoadTest.class.getClassLoader());
+			} catch (ClassNotFoundException | LinkageError e) {continue;}
+			for (Field field: type.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (!Modifier.isStatic(modifiers) || field.isSynthetic() || type.isEnum()) {continue;}
+				Class<?> kind = field.getType();
+				boolean value = kind.isPrimitive() || kind == String.class || (kind.isArray() && kind.getComponentType() == String.class);
+				if (Modifier.isFinal(modifiers) && value) {continue;}
+				shared.add(type.getName() + "." + field.getName() + " : " + kind.getSimpleName());
+			}
+		}
+		Collections.sort(shared);
+		return shared;
+	}
+	/***************************************************************************************************
+	 * Returns the names of the classes that were loaded from the same place as the game
+	 * @return ArrayList of the class names
+	 * @throws IOException thrown if the classes couldn't be listed
+	 **************************************************************************************************/
+	private static ArrayList<String> getClassNames() throws IOException {
+		ArrayList<String> names = new ArrayList<String>();
+		Path location;
+		try {
+			location = Paths.get(PPController.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (URISyntaxException | NullPointerException e) {return names;}
+		if (Files.isDirectory(location)) {
+			try (Stream<Path> files = Files.walk(location)) {
+				files.filter(f -> f.toString().endsWith(".class")).forEach(f -> names.add(className(location.relativize(f).toString())));
+			}
+		}
+		else {
+			try (JarFile jar = new JarFile(location.toFile())) {
+				for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+					String entry = entries.nextElement().getName();
+					if (entry.endsWith(".class") && !entry.startsWith("META-INF")) {names.add(className(entry));}
+				}
+			}
+		}
+		return names;
+	}
+	private static String className(String path) {
+		return path.substring(0, path.length() - ".class".length()).replace(File.separatorChar, '.').replace('/', '.');
+	}
+
+	/***************************************************************************************************
+	 * A game without a view, played by a script of random inputs that change every quarter second
+	 ***************************************************************************************************/
+	private static class Session {
+		private PPController controller;
+		private Random script;
+		private int input = 0, ticks = 0;
+
+		/***********************************************************************************************
+		 * Builds a session, each with its own world and script
+		 * @param index The number of the session, seeding its world and script
+		 * @throws IOException thrown if the world couldn't be built
+		 **********************************************************************************************/
+		private Session(int index) throws IOException {
+			this.controller = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", index);
+			this.script = new Random(index);
+		}
+		/***********************************************************************************************
+		 * Runs ticks of the session
+		 * @param count The number of ticks
+		 * @return The time taken in nanoseconds
+		 **********************************************************************************************/
+		private long run(int count) {
+			long start = System.nanoTime();
+			for (int i=0; i<count; i++, this.ticks++) {
+				if (this.ticks % (PP.TICK_RATE / 4) == 0) {this.input = this.script.nextInt(8);}
+				this.controller.update(this.input, 0);
+			}
+			return System.nanoTime() - start;
+		}
+		private String getState() {return PPInputLog.getState(this.controller, 0);}
+	}
+}
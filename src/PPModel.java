@@ -3,7 +3,11 @@
  * 
  * Model structure for the puzzle platformer JavaFX application
  ******************************************************************************************************/
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Observable;
 import model.*;
@@ -12,7 +16,9 @@ public class PPModel extends Observable implements Serializable {
 	private static final long serialVersionUID = -7831455086538942814L;
 	//Attribute(s)--------------------------------------------------------------------------------------
 	private MWorld world;
-	private HashMap<Integer, Integer> tokenCount = new HashMap<Integer, Integer>();
+	private HashMap<Integer, Integer> tokenCount;	//Only filled in for saves made with Java serialization
+	private transient int[] tokens = new int[1];	//Tokens collected by each character, by ID
+	private transient PPProfiler profiler = new PPProfiler();
 	
 	//Mutator(s)----------------------------------------------------------------------------------------
 	/***************************************************************************************************
@@ -20,8 +26,33 @@ public class PPModel extends Observable implements Serializable {
 	 * @param world Represents the world object that is being saved.
 	 ***************************************************************************************************/
 	public void setWorld(MWorld world) {
+		setWorld(world, true);
+	}
+	/***************************************************************************************************
+	 * Assigns a MWorld object to this instance.
+	 * @param world Represents the world object that is being saved.
+	 * @param resetTokens Whether the player's token count starts over
+	 ***************************************************************************************************/
+	public void setWorld(MWorld world, boolean resetTokens) {
 		this.world = world;
-		this.tokenCount.put(0, 9);
+		if (resetTokens) {this.tokens[0] = 9;}
+	}
+	/***************************************************************************************************
+	 * Assigns the profiler that the phases of a tick are timed into
+	 * @param profiler Represents the profiler, such as the one the view shows
+	 ***************************************************************************************************/
+	public void setProfiler(PPProfiler profiler) {
+		this.profiler = profiler;
+	}
+	/***************************************************************************************************
+	 * Marks the start of a tick for the character specified
+	 * @param ID Specifies the character
+	 * @param time The game time at the start of the tick in milliseconds
+	 ***************************************************************************************************/
+	public void beginTick(int ID, long time) {
+		MCharacter character = getObject(ID);
+		character.storePrevious();
+		character.setClock(time);
 	}
 	/***************************************************************************************************
 	 * Calls the jump method in the character class for the character specified
@@ -53,19 +84,20 @@ public class PPModel extends Observable implements Serializable {
 	 * @param ID Specifies the character
 	 ***************************************************************************************************/
 	public void checkVelocity(int ID) {
+		long start = this.profiler.start();
 		MCharacter character = getObject(ID);
-		getObject(0).setTokenCount(this.tokenCount.get(0));
+		getObject(0).setTokenCount(this.tokens[0]);
 		double y = character.getY();
 		character.checkVelocity();
-		MToken temp = character.moveY((int) character.velocity.getY());
+		MToken temp = character.moveY((int) character.getVelocityY());
 		
 		//Death condition - fell out of the map
 		if (character.getY() > this.world.getCurrLevel().height || character.getY() < MWorld.BLOCK_SIZE) {
 			character.setHealth(0);
 		}
 		if (character.getHealth() == 0) {
-			this.tokenCount.put(character.ID, this.tokenCount.get(character.ID)-3);
-			character.setTokenCount(this.tokenCount.get(character.ID));
+			this.tokens[character.ID] -= 3;
+			character.setTokenCount(this.tokens[character.ID]);
 			respawn(character.ID);
 		}
 		
@@ -73,6 +105,7 @@ public class PPModel extends Observable implements Serializable {
 		if (y != character.getY()) {init(character);}
 		//If the player hit a token, notify the view
 		tokenCheck(temp, character);
+		this.profiler.end(PPProfiler.PHYSICS, start);
 	}
 	/***************************************************************************************************
 	 * Checks parts of the level for how many tokens that have been collected and assigns the next world
@@ -80,6 +113,17 @@ public class PPModel extends Observable implements Serializable {
 	 * @param temp The token that is being checked whether it has been consumed or not
 	 ***************************************************************************************************/
 	private void tokenCheck(MToken temp, MCharacter character) {
+		if (temp == null) {return;}
+		long start = this.profiler.start();
+		useToken(temp, character);
+		this.profiler.end(PPProfiler.TOKENS, start);
+	}
+	/***************************************************************************************************
+	 * Applies a token that a character touched: a gate, a collected token or the win condition
+	 * @param temp The token that is being checked whether it has been consumed or not
+	 * @param character The character that touched the token
+	 ***************************************************************************************************/
+	private void useToken(MToken temp, MCharacter character) {
 		if (temp != null) {
 			if (temp.getGroupID() == 1) {
 				MLevel level = null;
@@ -104,8 +148,8 @@ public class PPModel extends Observable implements Serializable {
 				}
 			}
 			else if (temp.getGroupID() == 0) {
-				this.tokenCount.put(character.ID, this.tokenCount.get(character.ID)+1);
-				character.setTokenCount(this.tokenCount.get(character.ID));
+				this.tokens[character.ID]++;
+				character.setTokenCount(this.tokens[character.ID]);
 			}
 			//Win Condition
 			else if (temp.getGroupID() == -1) {
@@ -137,7 +181,35 @@ public class PPModel extends Observable implements Serializable {
 		this.world.getCurrLevel().removeObject(ID); 
 	}
 	
+	/***************************************************************************************************
+	 * Sets the number of tokens a character has collected
+	 * @param ID Specifies the character
+	 * @param count The number of tokens
+	 ***************************************************************************************************/
+	public void setTokenCount(int ID, int count) {
+		if (ID >= this.tokens.length) {this.tokens = Arrays.copyOf(this.tokens, ID + 1);}
+		this.tokens[ID] = count;
+	}
+	
 	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the number of tokens each character has collected
+	 * @return int[] of the token count of each character, by ID
+	 ***************************************************************************************************/
+	public int[] getTokenCounts() {
+		return this.tokens;
+	}
+	/***************************************************************************************************
+	 * Returns the number of tokens a character has collected
+	 * @param ID Specifies the character
+	 * @return The number of tokens, 0 for a character that hasn't collected any
+	 ***************************************************************************************************/
+	public int getTokenCount(int ID) {
+		return (ID >= 0 && ID < this.tokens.length ? this.tokens[ID] : 0);
+	}
+	public PPProfiler getProfiler() {
+		return this.profiler;
+	}
 	/***************************************************************************************************
 	 * Returns a MWorld object
 	 * @return Mworld object that is returned
@@ -161,8 +233,8 @@ public class PPModel extends Observable implements Serializable {
 	 * Refreshes the display for all objects. Notifies the view of the data to be refreshed.
 	 ***************************************************************************************************/
 	public void refreshDisplay() {
-		//Notify the view of the background of the level
-		init(this.world.getCurrLevel().getBackground());
+		//Notify the view of the level so it can draw the background
+		init(this.world.getCurrLevel());
 		
 		//Notify the view of the level built
 		for (MPlatform p: this.world.getCurrLevel().getLevel().values()) {init(p);}
@@ -181,8 +253,35 @@ public class PPModel extends Observable implements Serializable {
 	 * @param obj as Object - The object that should be passed to the update method of any observer(s)
 	 **************************************************************************************************/
 	public void init(Object obj) {
+		if (this.countObservers() == 0) {return;}	//Nothing to notify, and notifying would copy the empty list
+		long start = this.profiler.start();
 		this.setChanged();
 		this.notifyObservers(obj);
+		this.profiler.end(PPProfiler.NOTIFY, start);
 	}
-	
-}
\ No newline at end of file
+	/***************************************************************************************************
+	 * Writes the model for a save made with Java serialization, with the token counts kept the way
+	 * those saves hold them
+	 * @param out The stream the model is written to
+	 * @throws IOException thrown if the model couldn't be written
+	 ***************************************************************************************************/
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		this.tokenCount = new HashMap<Integer, Integer>();
+		for (int ID=0; ID<this.tokens.length; ID++) {this.tokenCount.put(ID, this.tokens[ID]);}
+		out.defaultWriteObject();
+	}
+	/***************************************************************************************************
+	 * Reads the model from a save made with Java serialization
+	 * @param in The stream the model is read from
+	 * @throws IOException thrown if the model couldn't be read
+	 * @throws ClassNotFoundException thrown if a class in the save doesn't exist
+	 ***************************************************************************************************/
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.tokens = new int[] {9};
+		if (this.tokenCount != null) {
+			for (Integer ID: this.tokenCount.keySet()) {setTokenCount(ID, this.tokenCount.get(ID));}
+		}
+		this.profiler = new PPProfiler();
+	}
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************************************
+ * This class times each phase of a game tick and frame into histograms, so a slow frame can be traced
+ * to the input and movement of a tick, the physics, the tokens, the notification of the observers, the
+ * view updating the scene or the JavaFX pulse. Phases nest the way the calls do (a tick holds its
+ * physics, which holds the notifications it sends, which hold the view's updates), so each phase's
+ * time includes the phases inside it.
+ ******************************************************************************************************/
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+
+public class PPProfiler {
+	public final static int TICK = 0;		//PPController.update
+	public final static int PHYSICS = 1;	//PPModel.checkVelocity
+	public final static int TOKENS = 2;		//PPModel.tokenCheck, when a token was touched
+	public final static int NOTIFY = 3;		//PPModel.init, notifying the observers
+	public final static int VIEW = 4;		//PPView.update
+	public final static int FRAME = 5;		//The ticks and drawing of a frame, in the AnimationTimer
+	public final static int LAYOUT = 6;		//The CSS and layout of the scene during the pulse
+	public final static int PULSE = 7;		//The time between two pulses
+	public final static String[] NAMES = {"tick", "physics", "tokens", "notify", "view", "frame", "layout", "pulse"};
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private PPHistogram[] phases = new PPHistogram[NAMES.length];
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Constructs a profiler with an empty histogram for every phase
+	 **************************************************************************************************/
+	public PPProfiler() {
+		for (int i=0; i<this.phases.length; i++) {this.phases[i] = new PPHistogram();}
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the time a phase starts, to be passed to end() once it is over
+	 * @return The current time in nanoseconds
+	 **************************************************************************************************/
+	public long start() {return System.nanoTime();}
+	/***************************************************************************************************
+	 * Counts the time taken by a phase
+	 * @param phase The phase, one of the constants of this class
+	 * @param start The time the phase started, from start()
+	 **************************************************************************************************/
+	public void end(int phase, long start) {
+		this.phases[phase].record(System.nanoTime() - start);
+	}
+	/***************************************************************************************************
+	 * Counts a time measured some other way, such as between two pulses
+	 * @param phase The phase, one of the constants of this class
+	 * @param nanos The time in nanoseconds
+	 **************************************************************************************************/
+	public void record(int phase, long nanos) {
+		this.phases[phase].record(nanos);
+	}
+	/***************************************************************************************************
+	 * Forgets every time counted
+	 **************************************************************************************************/
+	public void reset() {
+		for (PPHistogram phase: this.phases) {phase.reset();}
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public PPHistogram getPhase(int phase) {return this.phases[phase];}
+	/***************************************************************************************************
+	 * Returns a table of the median, 99th percentile and max time of each phase, in microseconds
+	 * @return String of the table, a line per phase that has been timed
+	 **************************************************************************************************/
+	public String getReport() {
+		StringBuilder report = new StringBuilder(String.format("%-8s %9s %9s %9s %9s%n", "phase", "p50 us", "p99 us", "max us", "count"));
+		for (int i=0; i<this.phases.length; i++) {
+			PPHistogram phase = this.phases[i];
+			if (phase.getCount() == 0) {continue;}
+			report.append(String.format("%-8s %9.1f %9.1f %9.1f %9d%n", NAMES[i],
+					phase.getPercentile(50) / 1e3, phase.getPercentile(99) / 1e3, phase.getMax() / 1e3, phase.getCount()));
+		}
+		return report.toString();
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Writes the report to a file
+	 * @param file The file written, replaced if it exists
+	 * @throws FileNotFoundException thrown if the file couldn't be written
+	 **************************************************************************************************/
+	public void dump(File file) throws FileNotFoundException {
+		try (PrintWriter out = new PrintWriter(file)) {out.print(getReport());}
+	}
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************************************
+ * This class replays a recorded game without a view, as fast as it runs, to benchmark the game on real
+ * sessions and to check that a change to the game leaves them playing out the same. The game is
+ * replayed a number of times so the later runs show the speed once the JIT has warmed up, then the
+ * state it ended in is compared with the recording and the phases of the last run are reported.
+ *
+ * Usage: java PPReplay <input log> [runs]
+ * Exits with 1 if the replay ended in a different state than the recording.
+ ******************************************************************************************************/
+import java.io.File;
+import java.io.IOException;
+
+public class PPReplay {
+	/***************************************************************************************************
+	 * Replays a game
+	 * @param args The input log, then optionally the number of runs (5 by default)
+	 * @throws IOException thrown if the log or the files the world is built from couldn't be read
+	 **************************************************************************************************/
+	public static void main(String[] args) throws IOException {
+		PPInputLog log = PPInputLog.read(new File(args[0]));
+		int runs = (args.length > 1 ? Integer.parseInt(args[1]) : 5);
+		if (log.getWidth() != PP.WIDTH || log.getHeight() != PP.HEIGHT) {
+			System.out.println("PPReplay - Recorded on a " + log.getWidth() + "x" + log.getHeight() + " screen, replaying on "
+					+ PP.WIDTH + "x" + PP.HEIGHT + ": gates may lead elsewhere.");
+		}
+
+		String end = null;
+		PPProfiler profiler = null;
+		for (int run=1; run<=runs; run++) {
+			PPController controller = log.newGame();
+			profiler = new PPProfiler();
+			controller.setProfiler(profiler);
+			long start = System.nanoTime();
+			replay(log, controller);
+			long nanos = System.nanoTime() - start;
+			System.out.println(String.format("PPReplay - Run %d: %d ticks in %.1f ms (%.0f ticks/s)",
+					run, log.getTicks(), nanos / 1e6, log.getTicks() / (nanos / 1e9)));
+			end = PPInputLog.getState(controller, log.getPlayerID());
+		}
+		System.out.print(profiler.getReport());
+
+		//Compare the state the replay ended in with the recording
+		System.out.println("PPReplay - Ended in " + end);
+		if (log.getEnd().isEmpty()) {System.out.println("PPReplay - The recording has no end state to compare with.");}
+		else if (!log.getEnd().equals(end)) {
+			System.out.println("PPReplay - Diverged, the recording ended in " + log.getEnd());
+			System.exit(1);
+		}
+		else {System.out.println("PPReplay - Matches the recording.");}
+	}
+	/***************************************************************************************************
+	 * Replays every tick of a game
+	 * @param log The inputs of the game
+	 * @param controller The game, as it was before its first tick (see PPInputLog.newGame)
+	 **************************************************************************************************/
+	public static void replay(PPInputLog log, PPController controller) {
+		int playerID = log.getPlayerID(), ticks = log.getTicks();
+		for (int tick=0; tick<ticks; tick++) {controller.update(log.getInput(tick), playerID);}
+	}
+}
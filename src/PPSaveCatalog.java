@@ -0,0 +1,180 @@
+/*******************************************************************************************************
+ * This class lists the saves in a folder for the Load Game menu. It keeps an index file in the folder
+ * with the header of every save, so listing the saves only has to look at each file's size and time
+ * modified. A save is only opened when it is new or has changed since the index was written, and then
+ * only its header is read. Journals, temporary files and the index itself aren't listed.
+ *
+ * Index layout (big endian): int magic ("PPSI"), short version, int count, then for each save its name
+ * (DataOutput UTF), long size, long time modified, boolean whether it has a header, and the header.
+ ******************************************************************************************************/
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class PPSaveCatalog {
+	public final static int MAGIC = 0x50505349;
+	public final static short VERSION = 1;
+	public final static String INDEX = "saves.idx";
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private File folder;
+	private HashMap<String, Entry> entries;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate a catalog of the saves in a folder
+	 * @param folder The folder the saves are kept in
+	 ***************************************************************************************************/
+	public PPSaveCatalog(File folder) {
+		this.folder = folder;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the saves in the folder, the most recent first. The index is brought up to date with
+	 * any saves added, changed or deleted since it was written.
+	 * @return An ArrayList of the names of the saves
+	 ***************************************************************************************************/
+	public synchronized ArrayList<String> list() {
+		if (this.entries == null) {readIndex();}
+		File[] files = this.folder.listFiles();
+		if (files == null) {files = new File[0];}
+
+		boolean changed = false;
+		HashMap<String, Entry> current = new HashMap<String, Entry>();
+		for (File f: files) {
+			if (!isSave(f)) {continue;}
+			Entry entry = this.entries.get(f.getName());
+			if (entry == null || entry.length != f.length() || entry.modified != f.lastModified()) {
+				entry = new Entry(f.length(), f.lastModified(), null);
+				try {
+					entry.header = PPSaveCodec.readHeader(f);
+				} catch (IOException e) {e.printStackTrace(System.err);}
+				changed = true;
+			}
+			current.put(f.getName(), entry);
+		}
+		if (changed || current.size() != this.entries.size()) {
+			this.entries = current;
+			writeIndex();
+		}
+
+		ArrayList<String> names = new ArrayList<String>(this.entries.keySet());
+		names.sort((a, b) -> Long.compare(getTime(b), getTime(a)));
+		return names;
+	}
+	/***************************************************************************************************
+	 * Returns the most recent save in the folder
+	 * @return The name of the save, null if there are none
+	 ***************************************************************************************************/
+	public String getLatest() {
+		ArrayList<String> names = list();
+		return (names.isEmpty() ? null : names.get(0));
+	}
+	/***************************************************************************************************
+	 * Returns the header of a save listed
+	 * @param name The name of the save
+	 * @return Header of the save, null if it is an older save without one
+	 ***************************************************************************************************/
+	public synchronized PPSaveCodec.Header getHeader(String name) {
+		if (this.entries == null || !this.entries.containsKey(name)) {return null;}
+		return this.entries.get(name).header;
+	}
+	/***************************************************************************************************
+	 * Returns the text the Load Game menu shows for a save: its name, then where the player is (the
+	 * world, and the ID of the level, which counts the levels of every world), their tokens and how long
+	 * they have played
+	 * @param name The name of the save
+	 * @return The description of the save
+	 ***************************************************************************************************/
+	public String describe(String name) {
+		PPSaveCodec.Header header = getHeader(name);
+		if (header == null) {return name;}
+		long seconds = header.getPlaytime() / 1000;
+		return String.format("%s  (world %d, level ID %d, %d tokens, %d:%02d)", name, header.getWorld()+1, header.getLevel(), header.getTokens(), seconds / 60, seconds % 60);
+	}
+	/***************************************************************************************************
+	 * Returns whether a file in the folder is a save, rather than a journal, a temporary file or the
+	 * index
+	 * @param f The file
+	 * @return True if the file is listed as a save
+	 ***************************************************************************************************/
+	private static boolean isSave(File f) {
+		String name = f.getName();
+		return f.isFile() && !name.equals(INDEX) && !name.endsWith(".journal") && !name.endsWith(".tmp");
+	}
+	/***************************************************************************************************
+	 * Returns when a save was made, from its header or else from when its file was modified
+	 * @param name The name of the save
+	 * @return The time in milliseconds
+	 ***************************************************************************************************/
+	private long getTime(String name) {
+		Entry entry = this.entries.get(name);
+		return (entry.header != null ? entry.header.getTimestamp() : entry.modified);
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Reads the index file, starting with an empty index if there isn't one or it can't be read
+	 ***************************************************************************************************/
+	private void readIndex() {
+		this.entries = new HashMap<String, Entry>();
+		File index = new File(this.folder, INDEX);
+		if (!index.isFile()) {return;}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+			if (in.readInt() != MAGIC || in.readShort() != VERSION) {return;}
+			int count = in.readInt();
+			for (int i=0; i<count; i++) {
+				String name = in.readUTF();
+				Entry entry = new Entry(in.readLong(), in.readLong(), null);
+				if (in.readBoolean()) {entry.header = new PPSaveCodec.Header(in);}
+				this.entries.put(name, entry);
+			}
+		} catch (IOException e) {this.entries.clear();}
+	}
+	/***************************************************************************************************
+	 * Writes the index file, replacing the old one in a single move
+	 ***************************************************************************************************/
+	private void writeIndex() {
+		File index = new File(this.folder, INDEX);
+		File temp = new File(this.folder, INDEX + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeShort(VERSION);
+				out.writeInt(this.entries.size());
+				for (String name: this.entries.keySet()) {
+					Entry entry = this.entries.get(name);
+					out.writeUTF(name);
+					out.writeLong(entry.length);
+					out.writeLong(entry.modified);
+					out.writeBoolean(entry.header != null);
+					if (entry.header != null) {entry.header.write(out);}
+				}
+			}
+			Files.move(temp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {e.printStackTrace(System.err);}
+	}
+
+	/***************************************************************************************************
+	 * A save in the index, with the size and time modified of the file its header was read from
+	 ***************************************************************************************************/
+	private static class Entry {
+		private long length, modified;
+		private PPSaveCodec.Header header;
+
+		private Entry(long length, long modified, PPSaveCodec.Header header) {
+			this.length = length;
+			this.modified = modified;
+			this.header = header;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************************************
+ * This class reads and writes save files. A save only holds what the world is built from (the asset
+ * folder, assets file, world file and seed) and the state that has changed since, so it stays a few
+ * kilobytes no matter how large the levels are. Loading rebuilds the world and applies the state.
+ * Saves made before this format (a serialized PPController) can still be loaded.
+ *
+ * Layout (big endian): int magic ("PPSV"), short version, the header (byte world, int level, int
+ * tokens, long playtime, long timestamp), folder, assets file, world file (each as DataOutput UTF),
+ * long seed, then the state written by PPController.writeState. The header has a fixed size so the
+ * save catalog can read it without reading the rest. Version 1 saves have no header.
+ ******************************************************************************************************/
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class PPSaveCodec {
+	public final static int MAGIC = 0x50505356;
+	public final static short VERSION = 2;
+	public final static int HEADER_SIZE = 31;	//Magic, version and header
+
+	/***************************************************************************************************
+	 * Saves a game. Games that were themselves loaded from an old save are saved the old way.
+	 * @param controller The controller of the game being saved
+	 * @param file The save file
+	 * @throws IOException thrown if the save couldn't be written
+	 ***************************************************************************************************/
+	public static void write(PPController controller, File file) throws IOException {
+		if (!controller.hasState()) {
+			ObjectOutputStream oOut = new ObjectOutputStream(new FileOutputStream(file));
+			oOut.writeObject(controller);
+			oOut.close();
+			return;
+		}
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(encode(controller));
+		}
+	}
+	/***************************************************************************************************
+	 * Encodes a game in the save format, without writing it anywhere
+	 * @param controller The controller of the game being saved
+	 * @return The bytes of the save
+	 * @throws IOException thrown if the state couldn't be written
+	 ***************************************************************************************************/
+	public static byte[] encode(PPController controller) throws IOException {
+		return encode(controller, System.currentTimeMillis());
+	}
+	/***************************************************************************************************
+	 * Encodes a game in the save format with the given timestamp, which an autosave also uses as its
+	 * generation
+	 * @param controller The controller of the game being saved
+	 * @param timestamp When the game was saved, in milliseconds
+	 * @return The bytes of the save
+	 * @throws IOException thrown if the state couldn't be written
+	 ***************************************************************************************************/
+	public static byte[] encode(PPController controller, long timestamp) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		new Header(controller.getWorldIndex(), controller.getCurrentLevel().ID, controller.getTokenCount(0), controller.getPlaytime(), timestamp).write(out);
+		out.writeUTF(controller.getFolderPath());
+		out.writeUTF(controller.getAssetPath());
+		out.writeUTF(controller.getWorldPath());
+		out.writeLong(controller.getSeed());
+		controller.writeState(out);
+		return bytes.toByteArray();
+	}
+	/***************************************************************************************************
+	 * Loads a game, rebuilding its world from the files and seed in the save. If the save has a journal
+	 * next to it (an autosave), the journal is replayed on top of it.
+	 * @param view The view the loaded game is displayed on
+	 * @param file The save file
+	 * @return PPController of the loaded game
+	 * @throws IOException thrown if the save couldn't be read
+	 ***************************************************************************************************/
+	public static PPController read(PPView view, File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (file.length() >= 6 && in.readInt() == MAGIC) {
+				short version = in.readShort();
+				if (version != 1 && version != VERSION) {throw new IOException("Unsupported save version " + version + ": " + file);}
+				Header header = (version == 1 ? null : new Header(in));
+				PPController controller = new PPController(view, in.readUTF(), in.readUTF(), in.readUTF(), in.readLong());
+				controller.readState(in);
+				if (header != null) {controller.setPlaytime(header.getPlaytime());}
+				PPAutosave.replay(controller, PPAutosave.journalFile(file), (header == null ? -1 : header.getTimestamp()));
+				return controller;
+			}
+		}
+
+		//Fall back to a save made with Java serialization
+		try (ObjectInputStream oIn = new ObjectInputStream(new FileInputStream(file))) {
+			return (PPController) oIn.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Not a save file: " + file, e);
+		}
+	}
+	/***************************************************************************************************
+	 * Reads only the header of a save
+	 * @param file The save file
+	 * @return Header of the save, null if the save has none (an older save, or not a save)
+	 * @throws IOException thrown if the save couldn't be read
+	 ***************************************************************************************************/
+	public static Header readHeader(File file) throws IOException {
+		if (file.length() < HEADER_SIZE) {return null;}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), HEADER_SIZE))) {
+			if (in.readInt() != MAGIC || in.readShort() != VERSION) {return null;}
+			return new Header(in);
+		}
+	}
+
+	/***************************************************************************************************
+	 * What the Load Game menu shows about a save: where the player is, their tokens, how long they have
+	 * played and when the game was saved
+	 ***************************************************************************************************/
+	public static class Header {
+		private int world, level, tokens;
+		private long playtime, timestamp;
+
+		public Header(int world, int level, int tokens, long playtime, long timestamp) {
+			this.world = world;
+			this.level = level;
+			this.tokens = tokens;
+			this.playtime = playtime;
+			this.timestamp = timestamp;
+		}
+		public Header(DataInputStream in) throws IOException {
+			this(in.readByte(), in.readInt(), in.readInt(), in.readLong(), in.readLong());
+		}
+		public void write(DataOutputStream out) throws IOException {
+			out.writeByte(this.world);
+			out.writeInt(this.level);
+			out.writeInt(this.tokens);
+			out.writeLong(this.playtime);
+			out.writeLong(this.timestamp);
+		}
+
+		public int getWorld() {return this.world;}
+		public int getLevel() {return this.level;}
+		public int getTokens() {return this.tokens;}
+		public long getPlaytime() {return this.playtime;}
+		public long getTimestamp() {return this.timestamp;}
+	}
+}
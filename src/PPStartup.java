@@ -0,0 +1,100 @@
+/*******************************************************************************************************
+ * This class runs the stages of starting the game, running the ones that don't depend on each other at
+ * the same time on a small pool of background threads. It times every stage from the moment it was
+ * created, so the time until the menu can be used and until the game is ready can be reported and
+ * tracked. Stages that have to run on the JavaFX thread are timed with time() instead.
+ ******************************************************************************************************/
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PPStartup {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private long origin = System.nanoTime();
+	private LinkedHashMap<String, long[]> stages = new LinkedHashMap<String, long[]>();	//{start, end} of each stage
+	private ExecutorService pool;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Starts timing the startup, with a pool of background threads for its stages
+	 * @param threads as int - The number of stages that can run at the same time
+	 **************************************************************************************************/
+	public PPStartup(int threads) {
+		this.pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "PPStartup");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Stops the background threads, once every stage has finished
+	 **************************************************************************************************/
+	public void shutdown() {this.pool.shutdown();}
+	/***************************************************************************************************
+	 * Records a moment of the startup, such as the first frame drawn
+	 * @param name as String - The name of the moment
+	 **************************************************************************************************/
+	public synchronized void mark(String name) {
+		long now = System.nanoTime() - this.origin;
+		this.stages.putIfAbsent(name, new long[] {now, now});
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns when each stage started and ended, in milliseconds since the startup began
+	 * @return String of the report, in the order the stages started
+	 **************************************************************************************************/
+	public synchronized String getReport() {
+		StringBuilder report = new StringBuilder("startup");
+		for (String name: this.stages.keySet()) {
+			long[] times = this.stages.get(name);
+			report.append(String.format(" | %s %.1f", name, times[0] / 1e6));
+			if (times[1] == -1) {report.append("-?");}
+			else if (times[1] != times[0]) {report.append(String.format("-%.1f", times[1] / 1e6));}
+		}
+		return report.append(" ms").toString();
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Starts a stage on a background thread
+	 * @param name as String - The name of the stage
+	 * @param work as Callable - The work of the stage
+	 * @return CompletableFuture of the stage's result
+	 **************************************************************************************************/
+	public <T> CompletableFuture<T> stage(String name, Callable<T> work) {
+		return CompletableFuture.supplyAsync(() -> time(name, work), this.pool);
+	}
+	/***************************************************************************************************
+	 * Starts a stage on a background thread once the stages it depends on have finished
+	 * @param name as String - The name of the stage
+	 * @param after as CompletableFuture[] - The stages that have to finish first
+	 * @param work as Callable - The work of the stage
+	 * @return CompletableFuture of the stage's result
+	 **************************************************************************************************/
+	public <T> CompletableFuture<T> stage(String name, CompletableFuture<?>[] after, Callable<T> work) {
+		return CompletableFuture.allOf(after).thenApplyAsync(v -> time(name, work), this.pool);
+	}
+	/***************************************************************************************************
+	 * Runs a stage on the calling thread, timing it
+	 * @param name as String - The name of the stage
+	 * @param work as Callable - The work of the stage
+	 * @return The result of the stage
+	 **************************************************************************************************/
+	public <T> T time(String name, Callable<T> work) {
+		long[] times = new long[] {System.nanoTime() - this.origin, -1};
+		synchronized (this) {this.stages.put(name, times);}
+		try {
+			return work.call();
+		} catch (Exception e) {
+			throw new CompletionException(name + " failed", e);
+		} finally {
+			synchronized (this) {times[1] = System.nanoTime() - this.origin;}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************************************
+ * This class schedules the game ticks at a fixed rate, independent of how often the screen is drawn.
+ * Elapsed frame time is gathered in an accumulator and spent in whole ticks, with the leftover fraction
+ * of a tick used to interpolate what is drawn between the last two ticks.
+ * @author TLeD8
+ ******************************************************************************************************/
+public class PPTimestep {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private long tickNanos;
+	private int maxTicksPerFrame = 5;
+	private long accumulator = 0;
+	private long lastTime = -1;
+
+	//Tick statistics
+	private long ticks = 0;
+	private long coalescedTicks = 0;
+	private long droppedTicks = 0;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Constructs a scheduler that runs the given amount of ticks each second
+	 * @param tickRate as int - The number of ticks per second
+	 **************************************************************************************************/
+	public PPTimestep(int tickRate) {
+		setTickRate(tickRate);
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Sets the number of ticks that should run each second
+	 * @param tickRate as int - The number of ticks per second
+	 **************************************************************************************************/
+	public void setTickRate(int tickRate) {
+		this.tickNanos = 1000000000L / Math.max(1, tickRate);
+	}
+	/***************************************************************************************************
+	 * Sets the most ticks that will be run to catch up in a single frame. Any time owed beyond this
+	 * after a stall is dropped rather than run in a burst.
+	 * @param maxTicksPerFrame as int - The cap on ticks per frame
+	 **************************************************************************************************/
+	public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+		this.maxTicksPerFrame = Math.max(1, maxTicksPerFrame);
+	}
+	/***************************************************************************************************
+	 * Forgets the time of the last frame, used when the game is paused so the time spent in the menu
+	 * isn't owed as ticks when it resumes
+	 **************************************************************************************************/
+	public void reset() {
+		this.lastTime = -1;
+		this.accumulator = 0;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns how far the current frame is between the last tick and the next one
+	 * @return A value from 0 (at the last tick) up to 1 (at the next tick)
+	 **************************************************************************************************/
+	public double getAlpha() {return (double) this.accumulator / this.tickNanos;}
+	public long getTicks() {return this.ticks;}
+	public long getCoalescedTicks() {return this.coalescedTicks;}
+	public long getDroppedTicks() {return this.droppedTicks;}
+	/***************************************************************************************************
+	 * Returns a summary of the ticks that have been run, coalesced into a single frame and dropped
+	 * @return String describing the tick statistics
+	 **************************************************************************************************/
+	public String getReport() {
+		return "Ticks: " + this.ticks + ", Coalesced: " + this.coalescedTicks + ", Dropped: " + this.droppedTicks;
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Adds the time passed since the last frame and returns how many ticks should be run for it
+	 * @param now as long - The timestamp of the current frame in nanoseconds
+	 * @return The number of ticks to run this frame
+	 **************************************************************************************************/
+	public int advance(long now) {
+		//First frame - nothing is owed yet
+		if (this.lastTime < 0) {
+			this.lastTime = now;
+			return 0;
+		}
+		this.accumulator += Math.max(0, now - this.lastTime);
+		this.lastTime = now;
+
+		long owed = this.accumulator / this.tickNanos;
+		int run = (int) Math.min(owed, this.maxTicksPerFrame);
+		if (owed > run) {		//Stalled - drop the ticks that can't be caught up and keep the remainder
+			this.droppedTicks += owed - run;
+			this.accumulator %= this.tickNanos;
+		}
+		else {this.accumulator -= run * this.tickNanos;}
+
+		if (run > 1) {this.coalescedTicks += run - 1;}
+		this.ticks += run;
+		return run;
+	}
+}
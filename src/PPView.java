@@ -6,31 +6,29 @@
  * @author Tyler-LeDuc
  ******************************************************************************************************/
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.CompletableFuture;
 import javafx.animation.AnimationTimer;
 import javafx.animation.FadeTransition;
 import javafx.animation.Timeline;
 import javafx.application.Application;
-import javafx.beans.binding.Bindings;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.Background;
@@ -50,10 +48,19 @@ import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import model.MAssetArchive;
 import model.MCharacter;
+import model.MLevel;
 import model.MPlatform;
 import model.MToken;
 import model.MWorld;
+import view.VCamera;
+import view.VHud;
+import view.VImageCache;
+import view.VNodeRegistry;
+import view.VPrefetcher;
+import view.VSprite;
+import view.VTileMap;
 
 public class PPView extends Application implements Observer{
 	//Attribute(s)--------------------------------------------------------------------------------------
@@ -64,17 +71,31 @@ public class PPView extends Application implements Observer{
 	
 	
 	private PPController controller;
+	private PPAutosave autosave;
+	private PPSaveCatalog catalog = new PPSaveCatalog(new File("src/../saves/"));
 	private Pane appRoot = new Pane();
 		private Label gameInfo;
 		private long timeShown = System.currentTimeMillis();
 	private Pane gameRoot = new Pane();
+		private VNodeRegistry registry = new VNodeRegistry();
+		private VCamera camera;
+		private boolean batchTerrain = Boolean.parseBoolean(System.getProperty("pp.batchTerrain", "true"));
+		private VPrefetcher prefetcher = new VPrefetcher(this.batchTerrain);
+		private VTileMap terrain;
+		private ArrayList<Node> tilesAdded = new ArrayList<Node>(), tilesRemoved = new ArrayList<Node>();
 	private Pane uiRoot = new Pane();
-		private ImageView health;
-		private SimpleIntegerProperty tokenCount = new SimpleIntegerProperty(9);
+		private VHud hud;
 	private Pane menuRoot = new Pane();
 		private SimpleDoubleProperty volumeLevel = new SimpleDoubleProperty(1);
 	private boolean running = false;
 	private int playerID = 0;
+	private PPTimestep timestep = new PPTimestep(PP.TICK_RATE);
+	private PPStartup startup = new PPStartup(3);
+	private PPProfiler profiler = new PPProfiler();
+	private PPInputLog recording;
+	private Label stats;
+	private long lastPulse = -1, layoutStart = 0, statsShown = 0;
+	private boolean startupReported = false;
 	//Mutator(s)----------------------------------------------------------------------------------------
 	/***************************************************************************************************
 	 * This method initializes the roots that are used to display the game
@@ -83,6 +104,8 @@ public class PPView extends Application implements Observer{
 		this.menuRoot = buildMenu();
 		this.uiRoot = buildUI();
 		this.gameRoot = buildGame();
+		this.camera = new VCamera(this.gameRoot, PP.WIDTH, PP.HEIGHT);
+		this.registry.releaseAll();
 		
 		this.gameInfo = new Label();
 		this.gameInfo.setTranslateX(600);
@@ -106,9 +129,32 @@ public class PPView extends Application implements Observer{
 	 * @param controller Object that contains methods to modify the view and model.
 	 ***************************************************************************************************/
 	private void setController(PPController controller) {
+		saveRecording();
 		this.controller = controller;
+		this.prefetcher.clear();
+		this.gameRoot.getChildren().clear();
+		this.camera.clear();
+		this.registry.releaseAll();
 		this.controller.setObserver(this);
+		this.controller.setProfiler(this.profiler);
+		//Record the inputs of new games, so they can be replayed (see PPReplay)
+		this.recording = (controller.getPlaytime() == 0 ? new PPInputLog(controller, this.playerID) : null);
+		this.controller.setRecorder(this.recording);
 		this.controller.refreshDisplay();
+		if (this.autosave != null) {this.autosave.setController(controller);}
+	}
+	/***************************************************************************************************
+	 * Writes the inputs recorded for the current game, if it was played, to the replays folder
+	 ***************************************************************************************************/
+	private void saveRecording() {
+		if (this.recording == null || this.recording.getTicks() == 0) {return;}
+		try {
+			File folder = new File("src/../replays/");
+			folder.mkdirs();
+			this.recording.finish(this.controller);
+			this.recording.write(new File(folder, "session_" + System.currentTimeMillis() + ".ppin"));
+		} catch (IOException e) {e.printStackTrace(System.err);}
+		this.recording = null;
 	}
 	/***************************************************************************************************
 	 * Sets the variable running value to a boolean in order to pause the main game.
@@ -146,25 +192,20 @@ public class PPView extends Application implements Observer{
 		ui.setId("ui");
 		ui.setPrefSize(PP.WIDTH, PP.HEIGHT);
 
-		//Setup health
-		this.health = new ImageView("images/100%_health.png");
-		this.health.setTranslateX(25);
-		this.health.setTranslateY(25);
-		this.health.setPreserveRatio(true);
-		this.health.setFitHeight(100);
-		
-		Label counter = new Label("Gathered: "); 
-		counter.setTranslateX(350);
-		counter.setTranslateY(25);
-		counter.setTextFill(Color.web("#ffff00"));
-		counter.setStyle("-fx-font-weight: bold");
-		counter.setFont(new Font("Arial", 48));
-		counter.textProperty().bind(Bindings.convert(this.tokenCount));
+		//Setup the health bar and token counter, drawn together into one canvas
+		this.hud = new VHud(PP.WIDTH);
 		
-		ui.getChildren().add(counter);
+		//Setup the frame time overlay, toggled with F3
+		this.stats = new Label();
+		this.stats.setTranslateX(20);
+		this.stats.setTranslateY(VHud.HEIGHT);
+		this.stats.setTextFill(Color.web("#ffff00"));
+		this.stats.setBackground(new Background(new BackgroundFill(Color.color(0, 0, 0, 0.6), CornerRadii.EMPTY, Insets.EMPTY)));
+		this.stats.setFont(Font.font("Monospaced", 16));
+		this.stats.setVisible(false);
 		
 		//Add the elements to the UI
-		ui.getChildren().add(this.health);
+		ui.getChildren().addAll(this.hud.getCanvas(), this.stats);
 		
 		return ui;
 	}
@@ -326,9 +367,9 @@ public class PPView extends Application implements Observer{
 				loadingOptions.setVisible(true);
 				menuOptions.setVisible(false);
 				loadingOptions.getChildren().clear();
-				for (File f: new File("src\\..\\saves\\").listFiles()) {
-					MenuItem loadOption = new MenuItem(f.getName(), 500);
-					loadingOptions.getChildren().addAll(buildLoadingOption(loadOption), createLine(600));
+				for (String name: this.catalog.list()) {
+					MenuItem loadOption = new MenuItem(name, this.catalog.describe(name), 800);
+					loadingOptions.getChildren().addAll(buildLoadingOption(loadOption), createLine(900));
 				}
 				MenuItem exit = new MenuItem("Cancel", 200);
 				exit.setOnMouseClicked(e -> {
@@ -342,7 +383,7 @@ public class PPView extends Application implements Observer{
 		saveInput.setTranslateY(300);
 		objectiveBox.setTranslateX(PP.WIDTH / 2 - 200);
 		objectiveBox.setTranslateY(300);
-		loadingOptions.setTranslateX(PP.WIDTH / 2 - 290);
+		loadingOptions.setTranslateX(PP.WIDTH / 2 - 440);
 		loadingOptions.setTranslateY(200);
 		menuOptions.setTranslateX(PP.WIDTH / 2 - 190);
 		menuOptions.setTranslateY(200);
@@ -385,40 +426,34 @@ public class PPView extends Application implements Observer{
 		return line;		
 	}
 	/***************************************************************************************************
-	 * Saves the game in a saves folder by creating a save file that contains the controller.
+	 * Saves the game in a saves folder by creating a save file that holds the state of the game.
 	 * @param filePath Where the game is saved at.
 	 * @throws Exception
 	 ***************************************************************************************************/
 	private void saveGame(String filePath) throws Exception {
-		String saveLoc = "src\\..\\saves\\";
+		String saveLoc = "src/../saves/";
 		//Automated save name - Use the current time as a default save name
 		if (filePath.length() == 0) {filePath = "save_" + System.currentTimeMillis() + ".save";}
 		
-		//Save the game
-		ObjectOutputStream oOut = new ObjectOutputStream(new FileOutputStream(saveLoc + filePath));
-		oOut.writeObject(this.controller);
-		oOut.close();
+		//Save the game, once there is one
+		if (this.controller == null) {return;}
+		PPSaveCodec.write(this.controller, new File(saveLoc + filePath));
 	}
 	/***************************************************************************************************
-	 * Loads a game by setting the views controller to the controller contained in the
+	 * Loads a game by setting the views controller to the controller rebuilt from the
 	 * save file specified by filePath
 	 * @param filePath Represents the name of the save file
 	 * @throws Exception
 	 ***************************************************************************************************/
 	private void loadGame(String filePath) throws Exception {
-		String saveLoc = "src\\..\\saves\\";
+		String saveLoc = "src/../saves/";
 		//Automated load choice - Use the most recent save file
-		if (filePath.length() == 0) {
-			long lastMod = Long.MIN_VALUE;
-			for (File f: new File(saveLoc).listFiles()) {
-				if (f.lastModified() > lastMod) {filePath = f.getName();}
-			}
-		}
+		if (filePath.length() == 0) {filePath = this.catalog.getLatest();}
+		if (filePath == null) {return;}
 		
-		ObjectInputStream oIn = new ObjectInputStream(new FileInputStream(saveLoc + filePath));
+		PPController loaded = PPSaveCodec.read(this, new File(saveLoc + filePath));
 		setRoots();
-		setController((PPController) oIn.readObject());
-		oIn.close();
+		setController(loaded);
 	}
 	/***************************************************************************************************
 	 * Initializes the scene the game is displayed on by calling setRoots and then
@@ -429,20 +464,50 @@ public class PPView extends Application implements Observer{
 	public void start(Stage primaryStage) throws Exception {
 		//Setup the stage properties
 		primaryStage.setMaximized(true);
+		this.autosave = new PPAutosave(new File("src/../saves/autosave.save"));
 		
-		//Setup the application component layering
-		setRoots();
-		setController(new PPController(this, "src/", "data/assets.dat", "data/world1.wrld"));
+		//Start the stages that don't need each other: the packed assets and the music
+		CompletableFuture<Boolean> assets = this.startup.stage("assets", () -> {
+			//Use the packed asset archive and image atlas when they have been built
+			if (new File("src/data/assets.pak").isFile()) {MAssetArchive.load("src/", "data/assets.pak");}
+			if (new File("src/data/atlas.dat").isFile()) {VImageCache.loadAtlas("src/", "data/atlas.dat");}
+			return true;
+		});
+		CompletableFuture<MediaPlayer> music = this.startup.stage("music", () -> {
+			String path = "./src/../music/music.mp3";
+			Media musicFile = new Media(new File(path).toURI().toString());
+			MediaPlayer player = new MediaPlayer(musicFile);
+			player.setStartTime(Duration.seconds(0));
+			player.setStopTime(musicFile.getDuration());
+			player.setCycleCount(MediaPlayer.INDEFINITE);
+			return player;
+		});
+		//The world is built from the assets
+		CompletableFuture<PPController> world = this.startup.stage("world", new CompletableFuture<?>[] {assets},
+				() -> new PPController(this, "src/", "data/assets.dat", "data/world1.wrld"));
 		
-		//Setup the music player
-		String path = "./src/../music/music.mp3";
-		Media musicFile = new Media(new File(path).toURI().toString());
-		player = new MediaPlayer(musicFile);
-		player.setStartTime(Duration.seconds(0));
-		player.setStopTime(musicFile.getDuration());
-		player.setCycleCount(MediaPlayer.INDEFINITE);
-		player.play();
-		player.volumeProperty().bind(this.volumeLevel);
+		//Show the menu straight away (PP read the screen size before launching), the game starts once the world is ready
+		this.startup.time("menu", () -> {
+			setRoots();
+			return true;
+		});
+		world.whenComplete((controller, e) -> Platform.runLater(() -> {
+			if (e != null) {e.printStackTrace(System.err);}
+			else if (this.controller == null) {this.startup.time("game", () -> {
+				setController(controller);
+				return true;
+			});}
+			startupDone(world, music);
+		}));
+		music.whenComplete((player, e) -> Platform.runLater(() -> {
+			if (e != null) {System.err.println("PPView.start() - No music: " + e.getCause());}
+			else {
+				this.player = player;
+				this.player.play();
+				this.player.volumeProperty().bind(this.volumeLevel);
+			}
+			startupDone(world, music);
+		}));
 		
 		//Build the scene that gets inputs from the application root stage
 		Scene scene = new Scene(appRoot);
@@ -455,24 +520,156 @@ public class PPView extends Application implements Observer{
 				this.menuRoot.setVisible(!this.menuRoot.isVisible());
 				this.running = !this.menuRoot.isVisible();
 			}
+			if (event.getCode() == KeyCode.F3) {this.stats.setVisible(!this.stats.isVisible());}
 		});
 		scene.setOnKeyReleased(event -> this.keys.put(event.getCode(), false));
+		//Time the CSS and layout of each pulse
+		scene.addPreLayoutPulseListener(() -> this.layoutStart = this.profiler.start());
+		scene.addPostLayoutPulseListener(() -> this.profiler.end(PPProfiler.LAYOUT, this.layoutStart));
 		
 		primaryStage.setTitle("Where is Mrs. Gumball?");
 		primaryStage.setScene(scene);
 		primaryStage.setResizable(true);
 		primaryStage.show();
+		this.startup.mark("shown");
 		
 		AnimationTimer timer = new AnimationTimer() {
 			@Override
 			public void handle(long now) {
-				if (running) {
-					controller.update(keys, playerID);
+				startup.mark("first frame");
+				long start = profiler.start();
+				if (lastPulse >= 0) {profiler.record(PPProfiler.PULSE, now - lastPulse);}
+				lastPulse = now;
+				if (running && controller != null) {
+					//Run as many fixed ticks as the time since the last frame calls for
+					for (int i=timestep.advance(now); i>0 && running; i--) {
+						controller.update(keys, playerID);
+					}
+					interpolate(timestep.getAlpha());
 				}
+				else {timestep.reset();}
+				profiler.end(PPProfiler.FRAME, start);
+				showStats(now);
 			}
 		};
 	    timer.start();
 	}
+	/***************************************************************************************************
+	 * Refreshes the frame time overlay twice a second while it is shown
+	 * @param now The timestamp of the current frame in nanoseconds
+	 ***************************************************************************************************/
+	private void showStats(long now) {
+		if (!this.stats.isVisible() || now - this.statsShown < 500000000L) {return;}
+		this.statsShown = now;
+		this.stats.setText(this.profiler.getReport());
+	}
+	/***************************************************************************************************
+	 * Prints the startup timing report once the world and the music have both finished starting.
+	 * @param world The stage building the world
+	 * @param music The stage loading the music
+	 ***************************************************************************************************/
+	private void startupDone(CompletableFuture<?> world, CompletableFuture<?> music) {
+		if (!world.isDone() || !music.isDone() || this.startupReported) {return;}
+		this.startupReported = true;
+		this.startup.shutdown();
+		System.out.println("PPView.start() - " + this.startup.getReport());
+	}
+	/***************************************************************************************************
+	 * Prints the tick statistics of the game loop, writes out the frame times and the autosave when the
+	 * application closes.
+	 ***************************************************************************************************/
+	@Override
+	public void stop() {
+		System.out.println("PPView.stop() - " + this.timestep.getReport());
+		try {
+			this.profiler.dump(new File("src/../frametimes.txt"));
+		} catch (FileNotFoundException e) {e.printStackTrace(System.err);}
+		saveRecording();
+		this.prefetcher.shutdown();
+		if (this.autosave != null) {this.autosave.shutdown();}
+	}
+	/***************************************************************************************************
+	 * Draws the player part of the way between where it was at the start of the last tick and where it
+	 * is now, so movement looks smooth when frames and ticks don't line up.
+	 * @param alpha How far the frame is between the last tick and the next one (0 to 1)
+	 ***************************************************************************************************/
+	private void interpolate(double alpha) {
+		MCharacter player = this.controller.getCharacter(this.playerID);
+		VSprite sprite = this.registry.get(player.ID);
+		if (sprite == null) {return;}
+		sprite.interpolate(player.getPrevX(), player.getPrevY(), alpha);
+		this.camera.moved(sprite.getImage());
+		this.camera.follow(sprite.getImage().getTranslateX(), sprite.getImage().getTranslateY(), player.getWidth(), player.getHeight());
+		streamTiles();
+	}
+	/***************************************************************************************************
+	 * Adds a node to the game and lets the camera decide whether it is in view.
+	 * @param node Represents the node being added
+	 ***************************************************************************************************/
+	private void addNode(Node node) {
+		this.gameRoot.getChildren().add(node);
+		this.camera.track(node);
+	}
+	/***************************************************************************************************
+	 * Removes a node from the game and the camera.
+	 * @param node Represents the node being removed
+	 ***************************************************************************************************/
+	private void removeNode(Node node) {
+		this.gameRoot.getChildren().remove(node);
+		this.camera.untrack(node);
+	}
+	/***************************************************************************************************
+	 * Returns the sprite that draws the given model object, brought up to date with the object.
+	 * @param obj Represents the model object being drawn
+	 * @return VSprite that draws the object, null if the object isn't in the game yet
+	 ***************************************************************************************************/
+	private VSprite getSprite(MPlatform obj) {
+		VSprite sprite = this.registry.get(obj.ID);
+		if (sprite == null) {return null;}
+		if (sprite.getObject() != obj) {sprite.bind(obj);}
+		else {sprite.sync();}
+		return sprite;
+	}
+	/***************************************************************************************************
+	 * Removes the sprite of an object from the game and the model's level.
+	 * @param obj Represents the model object being removed
+	 ***************************************************************************************************/
+	private void removeSprite(MPlatform obj) {
+		VSprite sprite = this.registry.remove(obj.ID);
+		if (sprite != null) {removeNode(sprite.getImage());}
+		this.controller.remove(obj.ID);
+	}
+	/***************************************************************************************************
+	 * Adds the nodes that draw a level's static terrain, reusing the ones already built for the level.
+	 * @param level Represents the level whose terrain is drawn
+	 ***************************************************************************************************/
+	private void buildTiles(MLevel level) {
+		this.terrain = null;
+		if (level.getTileMap() == null) {return;}
+		this.terrain = this.prefetcher.getTiles(level.getTileMap());
+		if (this.terrain.isStreamed()) {
+			this.terrain.reset();
+			streamTiles();
+		}
+		else {
+			for (Node node: this.terrain.getNodes()) {addNode(node);}
+		}
+	}
+	/***************************************************************************************************
+	 * Adds the terrain of a streamed level coming into view of the camera and removes the terrain
+	 * that has gone well out of view. Terrain is added just above the background, under the sprites.
+	 ***************************************************************************************************/
+	private void streamTiles() {
+		if (this.terrain == null || !this.terrain.isStreamed()) {return;}
+		this.tilesAdded.clear();
+		this.tilesRemoved.clear();
+		this.terrain.stream(this.camera.getX(), this.camera.getY(), PP.WIDTH, PP.HEIGHT, this.tilesAdded, this.tilesRemoved);
+		for (Node node: this.tilesRemoved) {removeNode(node);}
+		for (Node node: this.tilesAdded) {
+			this.gameRoot.getChildren().add(Math.min(1, this.gameRoot.getChildren().size()), node);
+			this.camera.track(node);
+		}
+	}
 	/***************************************************************************************************
 	 * Updates the view according to the object that is passed. This includes changing the background image,
 	 * going to the next level, completing a world, getting a token, taking damage, changing the platform, or moving
@@ -482,10 +679,13 @@ public class PPView extends Application implements Observer{
 	 ***************************************************************************************************/
 	@Override
 	public void update(Observable model, Object obj) {
+		long start = this.profiler.start();
 		//Game State - Level Transition
 		if (obj.getClass() == Boolean.class) {
 			Boolean o = (Boolean) obj;
 				this.gameRoot.getChildren().clear();
+				this.camera.clear();
+				this.registry.releaseAll();
 				this.controller.refreshDisplay();
 				this.controller.respawn(this.playerID);
 			if (o) {	//World Complete
@@ -505,20 +705,27 @@ public class PPView extends Application implements Observer{
 			}
 		}
 		//Background(s) - Add level background
-		else if (obj.getClass() == ImageView.class) {
-			ImageView o = (ImageView) obj;
-			if (!this.gameRoot.getChildren().contains(o)) {this.gameRoot.getChildren().add(o);}
+		else if (obj.getClass() == MLevel.class) {
+			MLevel o = (MLevel) obj;
+			ImageView background = this.prefetcher.getBackground(o);
+			this.gameRoot.getChildren().add(background);
+			this.camera.setBackground(background);
+			if (o.getTileMap() != null) {this.camera.setLevel(o.getTileMap().getCols() * MWorld.BLOCK_SIZE, o.getTileMap().getRows() * MWorld.BLOCK_SIZE);}
+			else {this.camera.setLevel(o.width, o.height);}
+			buildTiles(o);
+			this.prefetcher.prefetch(o);
 		}
 		//Character(s) - Player(s) and enemies
 		else if (obj.getClass() == MCharacter.class) {
 			MCharacter o = (MCharacter) obj;
-			ImageView img = o.getImage();
-			if (!this.gameRoot.getChildren().contains(img)) {this.gameRoot.getChildren().add(img);}
+			VSprite sprite = getSprite(o);
+			if (sprite == null) {addNode(this.registry.add(o).getImage());}
 			else {
+				this.camera.moved(sprite.getImage());
 				if (o.ID == this.playerID) {//Player Functionality
 					//Update token count and evaluate death
-					this.tokenCount.setValue(o.getTokenCount());
-					if (this.tokenCount.getValue() <= 0) {
+					this.hud.setTokens(o.getTokenCount());
+					if (o.getTokenCount() <= 0) {
 						//Game state message
 						this.gameInfo.setText("Death Won't Help You Save Her!");
 						this.gameInfo.setVisible(true);
@@ -530,46 +737,30 @@ public class PPView extends Application implements Observer{
 					}
 					
 					//Update health bar based on o.getHealth()
-					if (o.getHealth() <= (MWorld.DEFAULT_HEALTH-(4*(MWorld.DEFAULT_HEALTH/4)))) {
-					}
-					else if (o.getHealth() <= (MWorld.DEFAULT_HEALTH-(3*(MWorld.DEFAULT_HEALTH/4)))) {
-						this.health.setImage(new Image("images/25%_health.png"));
-					}
-					else if (o.getHealth() <= (MWorld.DEFAULT_HEALTH-(2*(MWorld.DEFAULT_HEALTH/4)))) {
-						this.health.setImage(new Image("images/50%_health.png"));
-					}
-					else if (o.getHealth() <= (MWorld.DEFAULT_HEALTH-(1*(MWorld.DEFAULT_HEALTH/4)))) {
-						this.health.setImage(new Image("images/75%_health.png"));
-					}
-					else if (o.getHealth() <= (MWorld.DEFAULT_HEALTH-(0*(MWorld.DEFAULT_HEALTH/4)))) {
-						this.health.setImage(new Image("images/100%_health.png"));
-					}
+					this.hud.setHealth(o.getHealth());
 					
 				}
 				else if (o.getHealth() <= 0) {//Enemy Death Functionality
-					this.gameRoot.getChildren().remove(img);
+					removeSprite(o);
 				}
 			}
 		}
 		//Token(s) - Consumables and Interactables
 		else if (obj.getClass() == MToken.class) {
 			MToken o = (MToken) obj;
-			ImageView img = o.getImage();
-			if (!this.gameRoot.getChildren().contains(img)) {this.gameRoot.getChildren().add(img);}
+			VSprite sprite = getSprite(o);
+			if (sprite == null) {addNode(this.registry.add(o).getImage());}
 			else {
 				//Does the token need to be removed from the level or interacted with?
-				if (o.isConsumable()) {
-					this.gameRoot.getChildren().remove(img);
-					this.controller.remove(o.ID);;
-				}
+				if (o.isConsumable()) {removeSprite(o);}
 			}
 		}
 		//Platform(s)
 		else if (obj.getClass() == MPlatform.class) {
 			MPlatform o = (MPlatform) obj;
-			ImageView img = o.getImage();
-			if (!this.gameRoot.getChildren().contains(img)) {this.gameRoot.getChildren().add(img);}
+			if (getSprite(o) == null) {addNode(this.registry.add(o).getImage());}
 		}
+		this.profiler.end(PPProfiler.VIEW, start);
 	}
 	/***************************************************************************************************
 	 * Represents a menu item that is displayed on the game menu. Sets up the visual elements
@@ -584,10 +775,20 @@ public class PPView extends Application implements Observer{
 		 * @param width Represents the width of the menu item rectangle
 		 ***************************************************************************************************/
 		public MenuItem(String name, int width){
+			this(name, name, width);
+		}
+		/***************************************************************************************************
+		 * Constructor for a MenuItem that displays different text than its name, such as a save shown
+		 * with its details.
+		 * @param name Represents the name of the menu option
+		 * @param display Represents the text that is displayed on the menu option
+		 * @param width Represents the width of the menu item rectangle
+		 ***************************************************************************************************/
+		public MenuItem(String name, String display, int width){
 			this.name = name;
 			Rectangle option = new Rectangle(width, 80);
 			option.setOpacity(0.2);
-			Text text = new Text(name);
+			Text text = new Text(display);
 			text.setFill(Color.BLACK);
 			text.setFont(Font.font("Times New Roman", FontWeight.SEMI_BOLD,40));
 			setAlignment(Pos.CENTER);
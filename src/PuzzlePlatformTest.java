@@ -5,12 +5,27 @@
  * This class contains the JUnit test case(s) for the puzzle platformer project
  ******************************************************************************************************/
 import static org.junit.jupiter.api.Assertions.*;
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import com.sun.management.ThreadMXBean;
+import org.junit.Assume;
 import org.junit.Test;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.util.Duration;
 import model.*;
+import view.SpriteAnimation;
 
 public class PuzzlePlatformTest {
 	//Attribute(s)--------------------------------------------------------------------------------------
@@ -21,15 +36,18 @@ public class PuzzlePlatformTest {
 	 * +90% Model Package/PPModel/PPController Coverage Test Module
 	 **************************************************************************************************/
 	public void modelTest() {
-		PPView view = new PPView();
 		PPController controller = null;
-		System.setErr(null);	//Prevent spurious console message(s) due to JavaFX components
 		
 		try {
-			for (int i=0; i<30; i++) {controller = new PPController(view, "src/", "data/assets.dat", "data/world1.wrld");}
-			controller = new PPController(view, "src/", "data/assets.dat", "data/world_test.wrld");
-		} catch (Exception e) {}
-		controller.removeObserver(view);
+			for (int i=0; i<30; i++) {controller = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld");}
+			assertEquals(8, MTemplateCache.size());												//Levels are only read once
+			PPController seeded = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 42);	//Seeded worlds match
+			controller = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 42);
+			assertEquals(42, controller.getSeed());
+			assertEquals(seeded.getCharacter(0).getX(), controller.getCharacter(0).getX());
+			assertEquals(seeded.getCharacter(0).getY(), controller.getCharacter(0).getY());
+			controller = new PPController(null, "src/", "data/assets.dat", "data/world_test.wrld");
+		} catch (FileNotFoundException e) {fail(e);}
 		controller.refreshDisplay();
 		
 		HashMap<KeyCode, Boolean> keys = new HashMap<KeyCode, Boolean>();
@@ -79,6 +97,168 @@ public class PuzzlePlatformTest {
 		for (int i=0; i<500; i++) {controller.update(keys, ID);}
 		keys.put(KeyCode.RIGHT, false);
 		
+		try {																		//PPSaveCodec coverage
+			PPController played = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 7);
+			keys.put(KeyCode.RIGHT, true);
+			for (int i=0; i<300; i++) {played.update(keys, ID);}
+			keys.put(KeyCode.RIGHT, false);
+			File save = File.createTempFile("save", ".save");
+			PPSaveCodec.write(played, save);
+			assertTrue(save.length() < 4096);
+			PPController loaded = PPSaveCodec.read(null, save);
+			save.delete();
+			assertEquals(played.getCharacter(ID).getX(), loaded.getCharacter(ID).getX());
+			assertEquals(played.getCharacter(ID).getY(), loaded.getCharacter(ID).getY());
+			assertEquals(played.getCharacter(ID).getHealth(), loaded.getCharacter(ID).getHealth());
+			assertEquals(played.getCharacter(ID).getTokenCount(), loaded.getCharacter(ID).getTokenCount());
+		} catch (IOException e) {fail(e);}
+		
+		try {																		//PPAutosave coverage
+			File save = File.createTempFile("autosave", ".save");
+			PPAutosave autosave = new PPAutosave(save);
+			PPController played = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 7);
+			autosave.setController(played);
+			keys.put(KeyCode.LEFT, true);
+			for (int i=0; i<300; i++) {played.update(keys, ID);}
+			keys.put(KeyCode.LEFT, false);
+			autosave.shutdown();
+			Files.write(PPAutosave.journalFile(save).toPath(), new byte[] {PPAutosave.CHARACTER, 0}, StandardOpenOption.APPEND);
+			byte[] snapshot = Files.readAllBytes(save.toPath()), journal = Files.readAllBytes(PPAutosave.journalFile(save).toPath());
+			PPAutosave restarted = new PPAutosave(save);							//A new game that isn't played keeps the autosave
+			restarted.setController(new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 7));
+			restarted.shutdown();
+			assertArrayEquals(snapshot, Files.readAllBytes(save.toPath()));
+			assertArrayEquals(journal, Files.readAllBytes(PPAutosave.journalFile(save).toPath()));
+			PPController loaded = PPSaveCodec.read(null, save);
+			save.delete();
+			PPAutosave.journalFile(save).delete();
+			assertEquals(played.getCharacter(ID).getX(), loaded.getCharacter(ID).getX());
+			assertEquals(played.getCharacter(ID).getY(), loaded.getCharacter(ID).getY());
+			
+			save = File.createTempFile("autosave", ".save");				//Journal replay, before any compaction
+			autosave = new PPAutosave(save);
+			played = new PPController(null, "src/", "data/assets.dat", "data/world_test.wrld", 7);
+			autosave.setController(played);
+			int start = played.getCurrentLevel().ID;
+			for (int i=0; i<100; i++) {played.update(PPController.LEFT, ID);}		//Picks up tokens and goes through a gate
+			for (int i=0; i<1000; i++) {played.update(PPController.JUMP, ID);}
+			autosave.flush();
+			assertNotEquals(start, played.getCurrentLevel().ID);
+			assertTrue(PPAutosave.journalFile(save).length() > 0);
+			loaded = PPSaveCodec.read(null, save);
+			autosave.shutdown();
+			save.delete();
+			PPAutosave.journalFile(save).delete();
+			assertEquals(played.getCurrentLevel().ID, loaded.getCurrentLevel().ID);
+			assertEquals(played.getCharacter(ID).getX(), loaded.getCharacter(ID).getX());
+			assertEquals(played.getCharacter(ID).getY(), loaded.getCharacter(ID).getY());
+			assertEquals(played.getTokenCount(ID), loaded.getTokenCount(ID));
+			for (int i=0; i<played.getLevelCount(); i++) {
+				assertEquals(played.getLevel(i).getTokens().keySet(), loaded.getLevel(i).getTokens().keySet());
+			}
+			
+			save = File.createTempFile("autosave", ".save");				//A journal older than the autosave is ignored
+			autosave = new PPAutosave(save);
+			played = new PPController(null, "src/", "data/assets.dat", "data/world_test.wrld", 7);
+			autosave.setController(played);
+			for (int i=0; i<100; i++) {played.update(PPController.LEFT, ID);}
+			autosave.flush();
+			byte[] old = Files.readAllBytes(PPAutosave.journalFile(save).toPath());
+			for (int i=0; i<1000; i++) {played.update(PPController.JUMP, ID);}
+			autosave.shutdown();
+			Files.write(PPAutosave.journalFile(save).toPath(), old);				//As if it crashed before starting the new journal
+			loaded = PPSaveCodec.read(null, save);
+			save.delete();
+			PPAutosave.journalFile(save).delete();
+			assertEquals(played.getCurrentLevel().ID, loaded.getCurrentLevel().ID);
+			assertEquals(played.getCharacter(ID).getX(), loaded.getCharacter(ID).getX());
+			assertEquals(played.getCharacter(ID).getY(), loaded.getCharacter(ID).getY());
+			assertEquals(played.getTokenCount(ID), loaded.getTokenCount(ID));
+		} catch (IOException e) {fail(e);}
+		
+		try {																		//PPSaveCatalog coverage
+			File folder = Files.createTempDirectory("saves").toFile();
+			PPController played = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 7);
+			for (int i=0; i<120; i++) {played.update(keys, ID);}
+			PPSaveCodec.write(played, new File(folder, "a.save"));
+			Files.write(new File(folder, "a.journal").toPath(), new byte[] {0});
+			Files.write(new File(folder, "b.save.tmp").toPath(), new byte[] {0});
+			assertEquals(1, new PPSaveCatalog(folder).list().size());
+			PPSaveCatalog catalog = new PPSaveCatalog(folder);
+			assertEquals("a.save", catalog.getLatest());
+			assertEquals(2000, catalog.getHeader("a.save").getPlaytime());
+			assertEquals(played.getCurrentLevel().ID, catalog.getHeader("a.save").getLevel());
+			assertTrue(catalog.describe("a.save").contains("(world 1, level ID " + played.getCurrentLevel().ID + ", "));
+			for (File f: folder.listFiles()) {f.delete();}
+			folder.delete();
+		} catch (IOException e) {fail(e);}
+		
+		PPStartup startup = new PPStartup(2);										//PPStartup coverage
+		CompletableFuture<Integer> first = startup.stage("first", () -> 1);
+		CompletableFuture<Integer> failed = startup.stage("failed", () -> {throw new IOException();});
+		CompletableFuture<Integer> after = startup.stage("after", new CompletableFuture<?>[] {first}, () -> first.join() + 1);
+		assertEquals(2, after.join());
+		assertThrows(CompletionException.class, () -> {failed.join();});
+		startup.mark("shown");
+		startup.shutdown();
+		assertTrue(startup.getReport().contains("| after "));
+		assertTrue(startup.getReport().contains("| shown "));
+		
+		PPHistogram histogram = new PPHistogram();									//PPProfiler coverage
+		for (int i=1; i<=1000; i++) {histogram.record(i * 1000L);}
+		assertEquals(500000, histogram.getPercentile(50), 500000 * 0.07);
+		assertEquals(990000, histogram.getPercentile(99), 990000 * 0.07);
+		assertEquals(1000000, histogram.getMax());
+		PPProfiler profiler = new PPProfiler();
+		controller.setProfiler(profiler);
+		for (int i=0; i<60; i++) {controller.update(keys, ID);}
+		assertEquals(60, profiler.getPhase(PPProfiler.TICK).getCount());
+		assertEquals(60, profiler.getPhase(PPProfiler.PHYSICS).getCount());
+		assertTrue(profiler.getReport().contains("tick"));
+		
+		try {																		//PPInputLog coverage
+			PPController played = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 7);
+			PPInputLog recording = new PPInputLog(played, ID);
+			played.setRecorder(recording);
+			Random random = new Random(3);
+			for (int i=0; i<1500; i++) {
+				if (i % 20 == 0) {for (KeyCode key: new KeyCode[] {KeyCode.W, KeyCode.A, KeyCode.D}) {keys.put(key, random.nextBoolean());}}
+				played.update(keys, ID);
+			}
+			recording.finish(played);
+			File file = File.createTempFile("session", ".ppin");
+			recording.write(file);
+			assertTrue(file.length() < 1500 / 4);
+			PPInputLog log = PPInputLog.read(file);
+			file.delete();
+			assertEquals(1500, log.getTicks());
+			PPController replayed = log.newGame();
+			PPReplay.replay(log, replayed);
+			assertEquals(log.getEnd(), PPInputLog.getState(replayed, ID));
+		} catch (IOException e) {fail(e);}
+		keys.clear();
+		try {																		//PPLoadTest coverage
+			assertTrue(PPLoadTest.getSharedFields().contains("model.MTemplateCache.templates : ConcurrentHashMap"));
+			PPLoadTest load = new PPLoadTest(2, "fixed", 1);
+			assertEquals(0, load.run(2));
+			assertTrue(load.getRow().startsWith("        2 "));
+		} catch (Exception e) {fail(e);}
+		try {																		//Allocation coverage
+			ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+			PPController played = new PPController(null, "src/", "data/assets.dat", "data/world1.wrld", 7);
+			int[] inputs = {0, PPController.JUMP, PPController.LEFT, PPController.RIGHT, PPController.JUMP | PPController.LEFT, PPController.JUMP | PPController.RIGHT};
+			for (int i=0; i<600; i++) {played.update(inputs[(i / 20) % inputs.length], ID);}
+			String level = "world " + played.getWorldIndex() + " level " + played.getCurrentLevel().ID;
+			long least = Long.MAX_VALUE;	//The JIT may allocate while it swaps in compiled code, so take the best of a few runs
+			for (int run=0; run<10 && least > 0; run++) {
+				long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+				for (int i=0; i<1200; i++) {played.update(inputs[(i / 20) % inputs.length], ID);}
+				least = Math.min(least, threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before);
+			}
+			assertTrue(PPInputLog.getState(played, ID).startsWith(level + " "));	//Still in the same level, so nothing was built
+			assertEquals(0, least);
+		} catch (FileNotFoundException e) {fail(e);}
+		
 		controller.remove(-1);
 		controller.remove(ID);
 		for (int i=0; i<2000; i++) {controller.remove(i);}
@@ -95,7 +275,7 @@ public class PuzzlePlatformTest {
 		temp.put(10, token);
 		MLevel level = new MLevel(new HashMap<Integer, MPlatform>(), 1920, 1080);	//MLevel coverage
 		level.setBackground("images/background_1.jpg", 1920, 1080);
-		level.getBackground();
+		level.getBackgroundPath();
 		level.getLevel();
 		level.getTokens();
 		level.getEnemies();
@@ -103,8 +283,50 @@ public class PuzzlePlatformTest {
 		level.getEast();
 		level.getSouth();
 		level.getWest();
-		SpriteAnimation ani = new SpriteAnimation(new ImageView(), Duration.INDEFINITE, 1, 1, 0, 0, 32, 32);
-		ani.interpolate(2.2);
+		MTileMap tileMap = new MTileMap(new byte[] {0, 1}, 2, 1, new MTileType[] {null, new MTileType("images/spike.png", 2)});	//MTileMap coverage
+		level.setTileMap(tileMap);
+		assertEquals(MTileMap.EMPTY, level.getTileMap().getTile(-1, 0));
+		assertEquals(2, tileMap.getType(tileMap.getTile(1, 0)).getDamage());
+		try {																		//MLevelTemplate coverage
+			MLevelTemplate text = MLevelTemplate.parse(new File("src/data/lvl_test.lvl"), PPController.readAssets("src/", "data/assets.dat"));
+			File lvb = File.createTempFile("lvl_test", MLevelTemplate.EXTENSION);
+			text.write(lvb, "src/");
+			MLevelTemplate binary = MLevelTemplate.read(lvb, "src/");
+			lvb.delete();
+			assertEquals(text.getWidth(), binary.getWidth());
+			assertEquals(text.getEntityCount(), binary.getEntityCount());
+			assertEquals(text.getAsset('S'), binary.getAsset('S'));
+			assertEquals(text.makeTileMap().getTile(0, 0), binary.makeTileMap().getTile(0, 0));
+		} catch (IOException e) {fail(e);}
+		try {																		//MChunkStore coverage
+			StringBuilder wide = new StringBuilder();
+			for (int row=0; row<10; row++) {
+				for (int col=0; col<3000; col++) {wide.append((col*7 + row*3) % 11 == 0 ? '1' : (col % 97 == 0 ? '^' : ' '));}
+				wide.append('\n');
+			}
+			File lvl = File.createTempFile("lvl_wide", ".lvl");
+			Files.write(lvl.toPath(), wide.toString().getBytes());
+			MLevelTemplate text = MLevelTemplate.parse(lvl, PPController.readAssets("src/", "data/assets.dat"));
+			File lvb = MLevelTemplate.compiledFile(lvl);
+			text.write(lvb, "src/", true);
+			MTileMap flat = text.makeTileMap(), streamed = MLevelTemplate.read(lvb, "src/").makeTileMap();
+			lvl.delete();
+			lvb.delete();
+			assertTrue(streamed.isStreamed());
+			for (int col=-1; col<=3000; col++) {
+				for (int row=-1; row<=10; row++) {assertEquals(flat.getTile(col, row), streamed.getTile(col, row));}
+			}
+		} catch (IOException e) {fail(e);}
+		try {																		//MAssetArchive coverage
+			File pak = File.createTempFile("assets", ".pak");
+			MArchiveBuilder.write(pak, "src/", new ArrayList<String>(Arrays.asList("data/assets.dat", "data/lvl_test.lvl", "images/background_0.jpg", "images/spike.png")));
+			MAssetArchive.load("", pak.getAbsolutePath());
+			assertArrayEquals(Files.readAllBytes(new File("src/data/lvl_test.lvl").toPath()), MAssetArchive.open("data/lvl_test.lvl").readAllBytes());
+			assertEquals(2, MAssetArchive.list("images/").size());
+			assertNull(MAssetArchive.get("data/lvl1.lvl"));
+			MAssetArchive.clear();
+			pak.delete();
+		} catch (IOException e) {fail(e);}
 		PPModel model = new PPModel();												//PPModel Coverage
 		model.setWorld(world);
 		model.getWorld();
@@ -112,4 +334,18 @@ public class PuzzlePlatformTest {
 		assertThrows(NullPointerException.class, () -> {model.respawn(0);});
 		assertThrows(NullPointerException.class, () -> {model.jumpCharacter(ID, 1);});
 	}
-}
\ No newline at end of file
+	@Test
+	/***************************************************************************************************
+	 * View Package/PPView Coverage Test Module, skipped when there isn't a display to draw on
+	 **************************************************************************************************/
+	public void viewTest() {
+		Assume.assumeFalse(GraphicsEnvironment.isHeadless());
+		PPView view = new PPView();
+		try {
+			PPController controller = new PPController(view, "src/", "data/assets.dat", "data/world_test.wrld");
+			controller.removeObserver(view);
+		} catch (FileNotFoundException e) {fail(e);}
+		SpriteAnimation ani = new SpriteAnimation(new ImageView(), Duration.INDEFINITE, 1, 1, 0, 0, 32, 32);
+		ani.interpolate(2.2);
+	}
+}
@@ -0,0 +1,72 @@
+/***************************************************************************************************
+ * This class is an optional build step that packs the game's files into the archive read by
+ * MAssetArchive. Every file in the given folders is packed, so compiled levels (see PPLevelCompiler)
+ * and the atlas (see view.VAtlasBuilder) should be built first. The loose files stay the ones edited;
+ * the archive has to be built again for changes to them to be seen while it exists.
+ *
+ * Usage: java model.MArchiveBuilder src/ data/assets.pak images data
+ ***************************************************************************************************/
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+
+public class MArchiveBuilder {
+	/***************************************************************************************************
+	 * Builds the archive
+	 * @param args as String[] - The folder, the archive and the folders packed (relative to the folder)
+	 * @throws IOException thrown if a file couldn't be read or the archive couldn't be written
+	 **************************************************************************************************/
+	public static void main(String[] args) throws IOException {
+		String folderPath = args[0], archivePath = args[1];
+
+		//Collect the files of each folder, leaving out the archive itself
+		ArrayList<String> paths = new ArrayList<String>();
+		for (int i=2; i<args.length; i++) {
+			String folder = (args[i].endsWith("/") ? args[i] : args[i] + "/");
+			File[] listed = new File(folderPath + folder).listFiles();
+			if (listed == null) {continue;}
+			for (File f: listed) {
+				if (f.isFile() && !(folder + f.getName()).equals(archivePath)) {paths.add(folder + f.getName());}
+			}
+		}
+		Collections.sort(paths);
+		write(new File(folderPath + archivePath), folderPath, paths);
+		System.out.println("MArchiveBuilder - Packed " + paths.size() + " files into " + folderPath + archivePath);
+	}
+	/***************************************************************************************************
+	 * Writes an archive of the given files
+	 * @param archive as File - The archive file
+	 * @param folderPath as String - The folder the paths are relative to
+	 * @param paths as ArrayList of Strings - The paths of the files, sorted
+	 * @throws IOException thrown if a file couldn't be read or the archive couldn't be written
+	 **************************************************************************************************/
+	public static void write(File archive, String folderPath, ArrayList<String> paths) throws IOException {
+		//Size the table of contents first, so the offset of each file is known when it is written
+		int offset = 4 + 2 + 4;
+		for (String path: paths) {offset += 2 + path.getBytes(StandardCharsets.UTF_8).length + 4 + 4;}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(archive)))) {
+			out.writeInt(MAssetArchive.MAGIC);
+			out.writeShort(MAssetArchive.VERSION);
+			out.writeInt(paths.size());
+			for (String path: paths) {
+				int length = (int) new File(folderPath + path).length();
+				byte[] name = path.getBytes(StandardCharsets.UTF_8);
+				out.writeShort(name.length);
+				out.write(name);
+				out.writeInt(offset);
+				out.writeInt(length);
+				offset += length;
+			}
+			for (String path: paths) {out.write(Files.readAllBytes(new File(folderPath + path).toPath()));}
+		}
+	}
+}
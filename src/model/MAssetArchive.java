@@ -0,0 +1,122 @@
+/***************************************************************************************************
+ * This class serves the game's files (images, assets file, worlds and levels) from a single packed
+ * archive, built by MArchiveBuilder, instead of many loose files. The archive is mapped into memory
+ * once, and its table of contents says where each file is, so reading a file is a lookup rather than
+ * a file open and listing a folder is a lookup rather than a directory listing. Files that aren't in
+ * the archive (or every file, when no archive has been loaded) are read from disk as before.
+ *
+ * Layout (big endian): int magic ("PPAR"), short version, int count, then per file its path relative
+ * to the asset folder (a short length and UTF-8 bytes), int offset from the start of the archive and
+ * int length, sorted by path, followed by the contents of the files.
+ ***************************************************************************************************/
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class MAssetArchive {
+	public final static int MAGIC = 0x50504152;
+	public final static short VERSION = 1;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private static String folderPath;
+	private static ByteBuffer data;
+	private static HashMap<String, int[]> files = new HashMap<String, int[]>();	//{offset, length} of each path
+	private static ArrayList<String> paths = new ArrayList<String>();
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Loads an archive, so the files it packs are read from it from now on
+	 * @param folder as String - The folder that the paths of the game's files are relative to
+	 * @param archivePath as String - The archive, relative to the folder
+	 * @throws IOException thrown if the archive couldn't be read
+	 **************************************************************************************************/
+	public static synchronized void load(String folder, String archivePath) throws IOException {
+		File archive = new File(folder + archivePath);
+		try (FileChannel channel = FileChannel.open(archive.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (in.getInt() != MAGIC || in.getShort() != VERSION) {throw new IOException("Not an asset archive: " + archive);}
+			HashMap<String, int[]> toc = new HashMap<String, int[]>();
+			ArrayList<String> names = new ArrayList<String>();
+			int count = in.getInt();
+			for (int i=0; i<count; i++) {
+				byte[] name = new byte[in.getShort() & 0xFFFF];
+				in.get(name);
+				String path = new String(name, StandardCharsets.UTF_8);
+				toc.put(path, new int[] {in.getInt(), in.getInt()});
+				names.add(path);
+			}
+			folderPath = folder.replace('\\', '/');
+			data = in;
+			files = toc;
+			paths = names;
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupt asset archive: " + archive, e);
+		}
+	}
+	/***************************************************************************************************
+	 * Unloads the archive, so every file is read from disk again
+	 **************************************************************************************************/
+	public static synchronized void clear() {
+		folderPath = null;
+		data = null;
+		files = new HashMap<String, int[]>();
+		paths = new ArrayList<String>();
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public static synchronized boolean isLoaded() {return data != null;}
+	/***************************************************************************************************
+	 * Returns the contents of a file in the archive
+	 * @param path as String - The path of the file, either including the asset folder or relative to it
+	 * @return ByteBuffer of the file's contents, null if the file isn't in the archive
+	 **************************************************************************************************/
+	public static synchronized ByteBuffer get(String path) {
+		if (data == null || path == null) {return null;}
+		path = path.replace('\\', '/');
+		if (path.startsWith(folderPath)) {path = path.substring(folderPath.length());}
+		int[] file = files.get(path);
+		if (file == null) {return null;}
+		return data.duplicate().position(file[0]).limit(file[0] + file[1]).slice();
+	}
+	/***************************************************************************************************
+	 * Opens a file in the archive for reading, straight from the mapped archive
+	 * @param path as String - The path of the file, either including the asset folder or relative to it
+	 * @return InputStream of the file's contents, null if the file isn't in the archive
+	 **************************************************************************************************/
+	public static InputStream open(String path) {
+		ByteBuffer file = get(path);
+		if (file == null) {return null;}
+		return new InputStream() {
+			@Override
+			public int read() {return (file.hasRemaining() ? file.get() & 0xFF : -1);}
+			@Override
+			public int read(byte[] bytes, int off, int len) {
+				if (!file.hasRemaining()) {return -1;}
+				len = Math.min(len, file.remaining());
+				file.get(bytes, off, len);
+				return len;
+			}
+			@Override
+			public int available() {return file.remaining();}
+		};
+	}
+	/***************************************************************************************************
+	 * Lists the files of a folder in the archive
+	 * @param folder as String - The folder, relative to the asset folder and ending with a '/'
+	 * @return ArrayList of the paths of the files, relative to the asset folder and sorted
+	 **************************************************************************************************/
+	public static synchronized ArrayList<String> list(String folder) {
+		ArrayList<String> listed = new ArrayList<String>();
+		for (String path: paths) {
+			if (path.startsWith(folder) && path.indexOf('/', folder.length()) == -1) {listed.add(path);}
+		}
+		return listed;
+	}
+}
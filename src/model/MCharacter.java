@@ -5,15 +5,18 @@ package model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import javafx.geometry.Point2D;
 
 public class MCharacter extends MPlatform implements Serializable {
 	private static final long serialVersionUID = 769079227202952836L;
 		//Attribute(s)--------------------------------------------------------------------------------------
 		private boolean canJump = true;
-		public transient Point2D velocity = new Point2D(0, 0);
+		private transient double velocityY = 0;
 		protected ArrayList<MPlatform> obstacles;
+		protected MCollisionGrid grid;
+		protected MTileMap tileMap;
+		private transient ArrayList<MPlatform> nearby;
 		private int spawnX, spawnY;
+		private double prevX, prevY;
 		private int tokenCount = 9;
 		
 		/***************************************************************************************************
@@ -31,6 +34,8 @@ public class MCharacter extends MPlatform implements Serializable {
 		public MCharacter(int posX, int posY, String filePath, ArrayList<MPlatform> obstacles) {
 			super(posX, posY, filePath);
 			this.obstacles = obstacles;
+			this.prevX = posX;
+			this.prevY = posY;
 		}
 		
 		//Mutator(s)----------------------------------------------------------------------------------------
@@ -41,6 +46,22 @@ public class MCharacter extends MPlatform implements Serializable {
 		public void setObstacles(ArrayList<MPlatform> obstacles) {
 			this.obstacles = obstacles;
 			this.obstacles.remove(this);	//This character shouldn't consider itself an obstacle
+			this.grid = null;				//Built again from the new obstacles when it is next needed
+		}
+		/***************************************************************************************************
+		 * Set the grid used to find the obstacles near this character
+		 * @param grid as MCollisionGrid - The grid indexing this character's obstacles
+		 **************************************************************************************************/
+		public void setCollisionGrid(MCollisionGrid grid) {
+			this.grid = grid;
+			this.grid.remove(this);		//This character shouldn't consider itself an obstacle
+		}
+		/***************************************************************************************************
+		 * Set the static terrain this character collides with
+		 * @param tileMap as MTileMap - The tiles of the level the character is in
+		 **************************************************************************************************/
+		public void setTileMap(MTileMap tileMap) {
+			this.tileMap = tileMap;
 		}
 		/***************************************************************************************************
 		 * Sets the location where a character will spawn
@@ -54,12 +75,38 @@ public class MCharacter extends MPlatform implements Serializable {
 		public void setTokenCount(int count) {
 			this.tokenCount = count;
 		}
+		/***************************************************************************************************
+		 * Sets the vertical motion of the character, used when a saved game is loaded
+		 * @param velocityY The vertical velocity
+		 * @param canJump Whether the character is standing on something it can jump from
+		 ***************************************************************************************************/
+		public void setMotion(double velocityY, boolean canJump) {
+			this.velocityY = velocityY;
+			this.canJump = canJump;
+		}
+		/***************************************************************************************************
+		 * Stops an object from blocking or interacting with this character
+		 * @param obj The object that was removed from the level
+		 ***************************************************************************************************/
+		public void removeObstacle(MPlatform obj) {
+			this.obstacles.remove(obj);
+			if (this.grid != null) {this.grid.remove(obj);}
+		}
 		/***************************************************************************************************
 		 * Spawns the character at the respawn location with full health.
 		 ***************************************************************************************************/
 		public void respawn() {
 			this.setHealth(MWorld.DEFAULT_HEALTH);
 			this.setPos(this.spawnX, this.spawnY);
+			storePrevious();
+		}
+		/***************************************************************************************************
+		 * Remembers the current position as the position at the start of the tick, used to interpolate
+		 * where the character is drawn between ticks
+		 ***************************************************************************************************/
+		public void storePrevious() {
+			this.prevX = this.x;
+			this.prevY = this.y;
 		}
 		
 		//Accessor(s)---------------------------------------------------------------------------------------
@@ -68,17 +115,18 @@ public class MCharacter extends MPlatform implements Serializable {
 		 * @return Number of tokens
 		 ***************************************************************************************************/
 		public int getTokenCount() {return this.tokenCount;}
+		public double getPrevX() {return this.prevX;}
+		public double getPrevY() {return this.prevY;}
+		public double getVelocityY() {return this.velocityY;}
+		public boolean canJump() {return this.canJump;}
 		
 		//Functional Method(s)------------------------------------------------------------------------------
 		/***************************************************************************************************
 		 * See if the character should accelerate due to gravity (up to a cap of 10)
 		 **************************************************************************************************/
 		public void checkVelocity() {
-			//Ensure that the velocity is set properly
-			if (this.velocity == null) {this.velocity = new Point2D(0, 0);}
-			
-			if (this.velocity.getY() < 10) {
-				this.velocity = this.velocity.add(0, 1);
+			if (this.velocityY < 10) {
+				this.velocityY += 1;
 			}
 		}
 		
@@ -87,16 +135,15 @@ public class MCharacter extends MPlatform implements Serializable {
 		 * @param value as int - The value of the y-velocity component to apply to the character
 		 **************************************************************************************************/
 		public void jump(int value) {
-			//Ensure that the velocity is set properly
-			if (this.velocity == null) {this.velocity = new Point2D(0, 0);}
-			
 			if (this.canJump) {
-				this.velocity = this.velocity.add(0, Math.abs(value)*-1);
+				this.velocityY += Math.abs(value)*-1;
 				this.canJump = false;
 			}
 		}
 		/***************************************************************************************************
-		 * Initiate horizontal movement of this character
+		 * Initiate horizontal movement of this character. The whole movement is resolved at once: the
+		 * obstacles and tiles along the path are found in a single query and the character is placed at
+		 * the first wall it would have touched while stepping a pixel at a time.
 		 * @param value as int - The magnitude and direction of the horizontal movement of the character
 		 * @return The MToken object that is the token interacted with during the movement
 		 **************************************************************************************************/
@@ -104,56 +151,222 @@ public class MCharacter extends MPlatform implements Serializable {
 			boolean movingRight = value > 0;
 			if (movingRight) {this.setAnimation(MWorld.BLOCK_SIZE);}
 			else {this.setAnimation(0);}
-			MToken retToken = null;
+			int steps = Math.abs(value);
+			int dir = (movingRight ? 1 : -1);
+			if (steps == 0) {return null;}
 			
-			for (int i=0; i<Math.abs(value); i++) {
-				for (MPlatform obstacle : this.obstacles) {
-					if (this.intersects(obstacle)) {
-						//Apply the damage taken
-						this.setHealth(this.getHealth() - obstacle.getDamage());
-						if ((retToken = processToken (obstacle)) != null) {break;}
-						if (movingRight) {
-							if (this.x + this.width == obstacle.x) {return retToken;}
-						} else {
-							if (this.x == obstacle.x + obstacle.width) {return retToken;}
-						}
-					}
-				}
-				this.setPos(((movingRight ? this.x + 1 : this.x - 1)), this.y);
+			//Collect everything the character passes over (position checked at step 0 up to step - 1)
+			double areaX = (movingRight ? this.x : this.x - (steps - 1));
+			double areaWidth = this.width + (steps - 1);
+			ArrayList<MPlatform> swept = getNearby(areaX, this.y, areaWidth, this.height);
+			
+			//Find the first step at which the leading edge rests against a wall
+			int stop = contactTiles(true, dir, steps, areaX, this.y, areaWidth, this.height);
+			for (int i=0; i<swept.size(); i++) {
+				MPlatform obstacle = swept.get(i);
+				if (obstacle.getClass() != MToken.class) {stop = contact(true, dir, stop, obstacle.x, obstacle.y, obstacle.width, obstacle.height);}
 			}
 			
+			int last = Math.min(stop, steps - 1);
+			touchTiles(true, dir, last, areaX, this.y, areaWidth, this.height);
+			MToken retToken = touch(swept, true, dir, last);
+			if (stop != 0) {this.setPos(this.x + (dir * stop), this.y);}
 			return retToken;
 		}
 		/***************************************************************************************************
-		 * Initiate vertical movement of this character
+		 * Initiate vertical movement of this character. Resolved the same way as horizontal movement, with
+		 * a landing leaving the character a pixel above the platform and able to jump again.
 		 * @param value as int - The magnitude and direction of the vertical movement of the character
 		 * @return The MToken object that is the token interacted with during the movement
 		 **************************************************************************************************/
 		public MToken moveY(int value) {
 			boolean movingDown = value > 0;
-			MToken retToken = null;
+			int steps = Math.abs(value);
+			int dir = (movingDown ? 1 : -1);
+			if (steps == 0) {return null;}
+			
+			//Collect everything the character passes over (position checked at step 0 up to step - 1)
+			double areaY = (movingDown ? this.y : this.y - (steps - 1));
+			double areaHeight = this.height + (steps - 1);
+			ArrayList<MPlatform> swept = getNearby(this.x, areaY, this.width, areaHeight);
 			
-			for (int i=0; i<Math.abs(value); i++) {
-				for (MPlatform obstacle : this.obstacles) {
-					if (this.intersects(obstacle)) {
+			//Find the first step at which the leading edge rests against a platform
+			int stop = contactTiles(false, dir, steps, this.x, areaY, this.width, areaHeight);
+			for (int i=0; i<swept.size(); i++) {
+				MPlatform obstacle = swept.get(i);
+				if (obstacle.getClass() != MToken.class) {stop = contact(false, dir, stop, obstacle.x, obstacle.y, obstacle.width, obstacle.height);}
+			}
+			
+			int last = Math.min(stop, steps - 1);
+			touchTiles(false, dir, last, this.x, areaY, this.width, areaHeight);
+			MToken retToken = touch(swept, false, dir, last);
+			if (movingDown && (stop < steps)) {		//Landed
+				this.setPos(this.x, this.y + stop - 1);
+				this.canJump = true;
+			}
+			else if (stop != 0) {this.setPos(this.x, this.y + (dir * stop));}
+			return retToken;
+		}
+		/***************************************************************************************************
+		 * Finds the step at which the leading edge of this character would rest against an obstacle
+		 * @param horizontal as boolean - Whether the movement is along the x axis
+		 * @param dir as int - The direction of the movement (1 or -1)
+		 * @param stop as int - The earliest stopping step found so far
+		 * @param ox as double - The left edge of the obstacle
+		 * @param oy as double - The top edge of the obstacle
+		 * @param ow as double - The width of the obstacle
+		 * @param oh as double - The height of the obstacle
+		 * @return The earlier of the stopping step against this obstacle and the given stopping step
+		 **************************************************************************************************/
+		private int contact(boolean horizontal, int dir, int stop, double ox, double oy, double ow, double oh) {
+			double contact;
+			if (horizontal) {
+				if (!overlaps(this.y, this.height, oy, oh)) {return stop;}
+				contact = (dir > 0 ? ox - (this.x + this.width) : this.x - (ox + ow));
+			}
+			else {
+				if (!overlaps(this.x, this.width, ox, ow)) {return stop;}
+				contact = (dir > 0 ? oy - (this.y + this.height) : this.y - (oy + oh));
+			}
+			if ((contact >= 0) && (contact < stop) && (contact == Math.floor(contact))) {return (int) contact;}
+			return stop;
+		}
+		/***************************************************************************************************
+		 * Finds the step at which the leading edge of this character would rest against a tile in the area
+		 * @param horizontal as boolean - Whether the movement is along the x axis
+		 * @param dir as int - The direction of the movement (1 or -1)
+		 * @param stop as int - The earliest stopping step found so far
+		 * @param areaX, areaY, areaWidth, areaHeight as double - The area swept by the movement
+		 * @return The earliest stopping step
+		 **************************************************************************************************/
+		private int contactTiles(boolean horizontal, int dir, int stop, double areaX, double areaY, double areaWidth, double areaHeight) {
+			if (this.tileMap == null) {return stop;}
+			for (int col=cell(areaX - 1); col<=cell(areaX + areaWidth + 1); col++) {
+				for (int row=cell(areaY - 1); row<=cell(areaY + areaHeight + 1); row++) {
+					if (this.tileMap.getTile(col, row) == MTileMap.EMPTY) {continue;}
+					stop = contact(horizontal, dir, stop, col * MWorld.BLOCK_SIZE, row * MWorld.BLOCK_SIZE, MWorld.BLOCK_SIZE, MWorld.BLOCK_SIZE);
+				}
+			}
+			return stop;
+		}
+		/***************************************************************************************************
+		 * Applies the damage of every tile in the area that the character touches during a movement
+		 * @param horizontal as boolean - Whether the movement is along the x axis
+		 * @param dir as int - The direction of the movement (1 or -1)
+		 * @param last as int - The last step of the movement at which the character is checked
+		 * @param areaX, areaY, areaWidth, areaHeight as double - The area swept by the movement
+		 **************************************************************************************************/
+		private void touchTiles(boolean horizontal, int dir, int last, double areaX, double areaY, double areaWidth, double areaHeight) {
+			if (this.tileMap == null) {return;}
+			for (int col=cell(areaX - 1); col<=cell(areaX + areaWidth + 1); col++) {
+				for (int row=cell(areaY - 1); row<=cell(areaY + areaHeight + 1); row++) {
+					byte tile = this.tileMap.getTile(col, row);
+					if ((tile != MTileMap.EMPTY) && (firstStep(horizontal, dir, last, col * MWorld.BLOCK_SIZE, row * MWorld.BLOCK_SIZE, MWorld.BLOCK_SIZE, MWorld.BLOCK_SIZE) >= 0)) {
 						//Apply the damage taken
-						this.setHealth(this.getHealth() - obstacle.getDamage());
-						if ((retToken = processToken (obstacle)) != null) {break;}
-						if (movingDown) {
-							if (this.y + this.height == obstacle.y) {
-								this.setPos(this.x, (this.y - 1));
-								this.canJump = true;
-								return retToken;
-							}
-						} else {
-							if (this.y == obstacle.y + obstacle.height) {return retToken;}
-						}
+						this.setHealth(this.getHealth() - this.tileMap.getType(tile).getDamage());
 					}
 				}
-				this.setPos(this.x, ((movingDown ? this.y + 1: this.y - 1)));
 			}
+		}
+		/***************************************************************************************************
+		 * Applies the damage of every obstacle the character touches during a movement and picks out the
+		 * first token that it reaches
+		 * @param swept as ArrayList of MPlatforms - The obstacles along the path of the movement
+		 * @param horizontal as boolean - Whether the movement is along the x axis
+		 * @param dir as int - The direction of the movement (1 or -1)
+		 * @param last as int - The last step of the movement at which the character is checked
+		 * @return The first MToken reached during the movement, null if there was none
+		 **************************************************************************************************/
+		private MToken touch(ArrayList<MPlatform> swept, boolean horizontal, int dir, int last) {
+			MToken retToken = null;
+			int retStep = last + 1;
+			for (int i=0; i<swept.size(); i++) {
+				MPlatform obstacle = swept.get(i);
+				int step = firstStep(horizontal, dir, last, obstacle.x, obstacle.y, obstacle.width, obstacle.height);
+				if (step < 0) {continue;}
+				
+				//Apply the damage taken
+				this.setHealth(this.getHealth() - obstacle.getDamage());
+				if ((obstacle.getClass() == MToken.class) && (step < retStep)) {
+					retToken = (MToken) obstacle;
+					retStep = step;
+				}
+			}
+			if (retToken != null) {processToken(retToken);}
 			return retToken;
 		}
+		/***************************************************************************************************
+		 * Finds the first step of a movement at which this character's bounding box meets an obstacle's
+		 * @param horizontal as boolean - Whether the movement is along the x axis
+		 * @param dir as int - The direction of the movement (1 or -1)
+		 * @param last as int - The last step of the movement at which the character is checked
+		 * @param ox as double - The left edge of the obstacle
+		 * @param oy as double - The top edge of the obstacle
+		 * @param ow as double - The width of the obstacle
+		 * @param oh as double - The height of the obstacle
+		 * @return The first step with an overlap, -1 if the two never overlap
+		 **************************************************************************************************/
+		private int firstStep(boolean horizontal, int dir, int last, double ox, double oy, double ow, double oh) {
+			double pos = (horizontal ? this.x : this.y), len = (horizontal ? this.width : this.height);
+			double obsPos = (horizontal ? ox : oy), obsLen = (horizontal ? ow : oh);
+			if (horizontal ? !overlaps(this.y, this.height, oy, oh) : !overlaps(this.x, this.width, ox, ow)) {return -1;}
+			
+			//The overlap test passes while either edge of the character lies inside the obstacle
+			int first = firstStep(dir, last, pos, obsPos - len, obsPos + obsLen - len);
+			int second = firstStep(dir, last, pos, obsPos, obsPos + obsLen);
+			return ((first < 0) || ((second >= 0) && (second < first)) ? second : first);
+		}
+		/***************************************************************************************************
+		 * Finds the first step of a movement at which a position falls in a range
+		 * @param dir as int - The direction of the movement (1 or -1)
+		 * @param last as int - The last step of the movement that is checked
+		 * @param pos as double - The position before the movement
+		 * @param lo as double - The start of the range
+		 * @param hi as double - The end of the range
+		 * @return The first step in the range, -1 if the position never is
+		 **************************************************************************************************/
+		private static int firstStep(int dir, int last, double pos, double lo, double hi) {
+			double from = (dir > 0 ? lo - pos : pos - hi);
+			double to = (dir > 0 ? hi - pos : pos - lo);
+			int stepFrom = (int) Math.max(0, Math.ceil(from));
+			int stepTo = (int) Math.min(last, Math.floor(to));
+			return (stepFrom <= stepTo ? stepFrom : -1);
+		}
+		/***************************************************************************************************
+		 * Returns the tile cell a coordinate falls in
+		 * @param pos as double - The coordinate on either axis
+		 * @return The index of the cell on that axis
+		 **************************************************************************************************/
+		private int cell(double pos) {
+			return (int) Math.floor(pos / MWorld.BLOCK_SIZE);
+		}
+		/***************************************************************************************************
+		 * Checks if two spans on the same axis overlap, counting touching edges as an overlap
+		 * @param pos as double - The start of this object's span
+		 * @param len as double - The length of this object's span
+		 * @param obsPos as double - The start of the other object's span
+		 * @param obsLen as double - The length of the other object's span
+		 * @return boolean - Whether either edge of this span lies inside the other span
+		 **************************************************************************************************/
+		private boolean overlaps(double pos, double len, double obsPos, double obsLen) {
+			return ((pos + len) <= (obsPos + obsLen) && (pos + len) >= obsPos)
+				|| (pos >= obsPos && pos <= (obsPos + obsLen));
+		}
+		/***************************************************************************************************
+		 * Returns the obstacles inside the given area. A character that wasn't given a collision grid (one
+		 * loaded from an older save) builds its own from its obstacles the first time.
+		 * @param x as double - The left edge of the area
+		 * @param y as double - The top edge of the area
+		 * @param width as double - The width of the area
+		 * @param height as double - The height of the area
+		 * @return ArrayList of MPlatforms - The obstacles that the character could be touching
+		 **************************************************************************************************/
+		private ArrayList<MPlatform> getNearby(double x, double y, double width, double height) {
+			if (this.grid == null) {setCollisionGrid(new MCollisionGrid(this.obstacles));}
+			if (this.nearby == null) {this.nearby = new ArrayList<MPlatform>();}
+			this.grid.query(x, y, width, height, this.nearby);
+			return this.nearby;
+		}
 		/***************************************************************************************************
 		 * Finds a specified token according to the parameter and processes / removes it.
 		 * @param token Represents the token that is being searched for.
@@ -163,9 +376,7 @@ public class MCharacter extends MPlatform implements Serializable {
 			MToken retToken = null;
 			if (token.getClass() == MToken.class) {					//Token Interaction
 				retToken = (MToken) token;
-				if (retToken.isConsumable()) {
-					this.obstacles.remove(token);
-				}
+				if (retToken.isConsumable()) {removeObstacle(token);}
 			}
 			return retToken;
 		}
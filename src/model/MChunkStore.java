@@ -0,0 +1,160 @@
+/***************************************************************************************************
+ * This class streams the terrain of a level too large to keep in memory from its compiled file. The
+ * tiles are stored as square chunks behind an index, so any chunk is found in constant time, and only
+ * the chunks used recently (those around the characters and the camera) are kept, up to a fixed
+ * number. Chunks are loaded when a tile in them is asked for and the least recently used is evicted.
+ * Entities are few even in large levels, so they stay in memory.
+ *
+ * Layout (big endian): int chunk count, int count of chunks stored, then per chunk (row by row) the
+ * int offset of its tiles from the end of the index, or -1 for a chunk without any tiles, then the
+ * tiles of every chunk stored, CHUNK_TILES*CHUNK_TILES bytes each, row by row.
+ ***************************************************************************************************/
+package model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MChunkStore {
+	public final static int CHUNK_TILES = 64;	//Width and height of a chunk in tiles
+	public final static int CACHE_CHUNKS = 32;	//Chunks kept loaded
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private ByteBuffer data;
+	private int index, tilesStart;
+	private int cols, rows, chunkCols;
+	private LinkedHashMap<Integer, byte[]> chunks;
+	private volatile Loaded last;	//The chunk asked for last, read without locking
+	private int loads = 0;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate a store over the chunked tiles of a compiled level
+	 * @param data as ByteBuffer - The compiled level, usually mapped from its file
+	 * @param index as int - The position of the chunk count in the data
+	 * @param cols as int - The number of columns of the level
+	 * @param rows as int - The number of rows of the level
+	 **************************************************************************************************/
+	public MChunkStore(ByteBuffer data, int index, int cols, int rows) {
+		this.data = data;
+		this.cols = cols;
+		this.rows = rows;
+		this.chunkCols = chunks(cols);
+		this.index = index + 8;
+		this.tilesStart = this.index + 4 * data.getInt(index);
+		this.chunks = new LinkedHashMap<Integer, byte[]>(CACHE_CHUNKS * 2, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+				return size() > CACHE_CHUNKS;
+			}
+		};
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public int getCols() {return this.cols;}
+	public int getRows() {return this.rows;}
+	public synchronized int getLoadedCount() {return this.chunks.size();}
+	public synchronized int getLoads() {return this.loads;}
+	/***************************************************************************************************
+	 * Returns the kind of tile in a cell, loading its chunk if it isn't loaded
+	 * @param col as int - The column of the cell
+	 * @param row as int - The row of the cell
+	 * @return The index of the kind of tile, EMPTY if there isn't one or the cell is off the map
+	 **************************************************************************************************/
+	public byte getTile(int col, int row) {
+		if (col < 0 || row < 0 || col >= this.cols || row >= this.rows) {return MTileMap.EMPTY;}
+		int chunk = (row / CHUNK_TILES) * this.chunkCols + (col / CHUNK_TILES);
+		Loaded last = this.last;
+		if (last == null || last.chunk != chunk) {last = getChunk(chunk);}
+		if (last.tiles == null) {return MTileMap.EMPTY;}
+		return last.tiles[(row % CHUNK_TILES) * CHUNK_TILES + (col % CHUNK_TILES)];
+	}
+	/***************************************************************************************************
+	 * Makes a chunk the one asked for last
+	 * @param chunk as int - The chunk, numbered row by row
+	 * @return Loaded chunk, whose tiles are null if the chunk has none
+	 **************************************************************************************************/
+	private synchronized Loaded getChunk(int chunk) {
+		this.last = new Loaded(chunk, loadChunk(chunk));
+		return this.last;
+	}
+	/***************************************************************************************************
+	 * Returns the tiles of a chunk, loading it and evicting the least recently used if it isn't loaded
+	 * @param chunk as int - The chunk, numbered row by row
+	 * @return byte[] of the chunk's tiles, null if the chunk has none
+	 **************************************************************************************************/
+	private byte[] loadChunk(int chunk) {
+		int offset = this.data.getInt(this.index + 4 * chunk);
+		if (offset < 0) {return null;}
+		byte[] tiles = this.chunks.get(chunk);
+		if (tiles == null) {
+			tiles = new byte[CHUNK_TILES * CHUNK_TILES];
+			this.data.get(this.tilesStart + offset, tiles);
+			this.chunks.put(chunk, tiles);
+			this.loads++;
+		}
+		return tiles;
+	}
+	private static int chunks(int tiles) {return (tiles + CHUNK_TILES - 1) / CHUNK_TILES;}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Writes tiles in the chunked layout
+	 * @param out as DataOutputStream - The stream the chunks are written to
+	 * @param tiles as byte[] - The kind of tile in each cell, row by row
+	 * @param cols as int - The number of columns
+	 * @param rows as int - The number of rows
+	 * @throws IOException thrown if the chunks couldn't be written
+	 **************************************************************************************************/
+	public static void write(DataOutputStream out, byte[] tiles, int cols, int rows) throws IOException {
+		int chunkCols = chunks(cols), chunkRows = chunks(rows);
+		byte[][] chunks = new byte[chunkCols * chunkRows][];
+		for (int row=0; row<rows; row++) {
+			for (int col=0; col<cols; col++) {
+				byte tile = tiles[row * cols + col];
+				if (tile == MTileMap.EMPTY) {continue;}
+				int chunk = (row / CHUNK_TILES) * chunkCols + (col / CHUNK_TILES);
+				if (chunks[chunk] == null) {chunks[chunk] = new byte[CHUNK_TILES * CHUNK_TILES];}
+				chunks[chunk][(row % CHUNK_TILES) * CHUNK_TILES + (col % CHUNK_TILES)] = tile;
+			}
+		}
+
+		//Index, then the chunks that have tiles
+		int stored = 0;
+		for (byte[] chunk: chunks) {if (chunk != null) {stored++;}}
+		out.writeInt(chunks.length);
+		out.writeInt(stored);
+		int offset = 0;
+		for (byte[] chunk: chunks) {
+			out.writeInt(chunk == null ? -1 : offset);
+			if (chunk != null) {offset += chunk.length;}
+		}
+		for (byte[] chunk: chunks) {
+			if (chunk != null) {out.write(chunk);}
+		}
+	}
+	/***************************************************************************************************
+	 * Returns the number of bytes the chunked layout of a map takes up in the data, so what follows it
+	 * can be read
+	 * @param data as ByteBuffer - The compiled level
+	 * @param index as int - The position of the chunk count in the data
+	 * @return The size of the chunked layout in bytes
+	 **************************************************************************************************/
+	public static int size(ByteBuffer data, int index) {
+		return 8 + 4 * data.getInt(index) + data.getInt(index + 4) * CHUNK_TILES * CHUNK_TILES;
+	}
+
+	/***************************************************************************************************
+	 * A chunk along with its number
+	 ***************************************************************************************************/
+	private static class Loaded {
+		private final int chunk;
+		private final byte[] tiles;
+
+		private Loaded(int chunk, byte[] tiles) {
+			this.chunk = chunk;
+			this.tiles = tiles;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/***************************************************************************************************
+ * This class represents a uniform grid that indexes the obstacles of a level by the cell(s) they
+ * cover, so a character only has to check the obstacles that are near it. Cells are kept in an open
+ * addressing table keyed by the cell's packed column and row, so looking one up boxes nothing.
+ ***************************************************************************************************/
+package model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+public class MCollisionGrid implements Serializable {
+	private static final long serialVersionUID = -3502861378912547061L;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private long[] keys = new long[64];
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private ArrayList<MPlatform>[] cells = new ArrayList[64];	//null where a slot is free
+	private int used = 0;
+	private int cellSize;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate an empty grid whose cells are the given size
+	 * @param cellSize as int - The width and height of each cell
+	 **************************************************************************************************/
+	public MCollisionGrid(int cellSize) {
+		this.cellSize = cellSize;
+	}
+	/***************************************************************************************************
+	 * Instantiate a grid with the default block sized cells that holds the given obstacles
+	 * @param obstacles as ArrayList of MPlatforms - The obstacles to index
+	 **************************************************************************************************/
+	public MCollisionGrid(ArrayList<MPlatform> obstacles) {
+		this(MWorld.BLOCK_SIZE);
+		for (MPlatform obstacle: obstacles) {add(obstacle);}
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Adds an obstacle to every cell its bounding box covers
+	 * @param obj as MPlatform - The obstacle being added
+	 **************************************************************************************************/
+	public void add(MPlatform obj) {
+		for (int cx=cell(obj.x); cx<=cell(obj.x + obj.width - 1); cx++) {
+			for (int cy=cell(obj.y); cy<=cell(obj.y + obj.height - 1); cy++) {
+				int slot = slot(key(cx, cy));
+				if (this.cells[slot] == null) {
+					if (2 * (this.used + 1) > this.cells.length) {
+						grow();
+						slot = slot(key(cx, cy));
+					}
+					this.keys[slot] = key(cx, cy);
+					this.cells[slot] = new ArrayList<MPlatform>();
+					this.used++;
+				}
+				this.cells[slot].add(obj);
+			}
+		}
+	}
+	/***************************************************************************************************
+	 * Removes an obstacle from every cell its bounding box covers
+	 * @param obj as MPlatform - The obstacle being removed
+	 **************************************************************************************************/
+	public void remove(MPlatform obj) {
+		for (int cx=cell(obj.x); cx<=cell(obj.x + obj.width - 1); cx++) {
+			for (int cy=cell(obj.y); cy<=cell(obj.y + obj.height - 1); cy++) {
+				ArrayList<MPlatform> cell = this.cells[slot(key(cx, cy))];
+				if (cell != null) {cell.remove(obj);}
+			}
+		}
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Collects every obstacle whose cell(s) overlap the given area. The area is grown by a pixel on
+	 * each side since touching edges count as an intersection.
+	 * @param x as double - The left edge of the area
+	 * @param y as double - The top edge of the area
+	 * @param width as double - The width of the area
+	 * @param height as double - The height of the area
+	 * @param found as ArrayList of MPlatforms - Cleared and filled with the obstacles found
+	 **************************************************************************************************/
+	public void query(double x, double y, double width, double height, ArrayList<MPlatform> found) {
+		found.clear();
+		for (int cx=cell(x - 1); cx<=cell(x + width + 1); cx++) {
+			for (int cy=cell(y - 1); cy<=cell(y + height + 1); cy++) {
+				ArrayList<MPlatform> cell = this.cells[slot(key(cx, cy))];
+				if (cell == null) {continue;}
+				for (int i=0; i<cell.size(); i++) {
+					//Obstacles spanning several cells should only be reported once
+					if (!found.contains(cell.get(i))) {found.add(cell.get(i));}
+				}
+			}
+		}
+	}
+	/***************************************************************************************************
+	 * Finds the slot of the table that holds a cell, or the free slot it would be put in
+	 * @param key as long - The key of the cell
+	 * @return The index of the slot
+	 **************************************************************************************************/
+	private int slot(long key) {
+		int mask = this.cells.length - 1;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while ((this.cells[slot] != null) && (this.keys[slot] != key)) {slot = (slot + 1) & mask;}
+		return slot;
+	}
+	/***************************************************************************************************
+	 * Doubles the size of the table, moving every cell to its slot in the new one
+	 **************************************************************************************************/
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void grow() {
+		long[] oldKeys = this.keys;
+		ArrayList<MPlatform>[] oldCells = this.cells;
+		this.keys = new long[oldKeys.length * 2];
+		this.cells = new ArrayList[oldCells.length * 2];
+		for (int i=0; i<oldCells.length; i++) {
+			if (oldCells[i] == null) {continue;}
+			int slot = slot(oldKeys[i]);
+			this.keys[slot] = oldKeys[i];
+			this.cells[slot] = oldCells[i];
+		}
+	}
+	/***************************************************************************************************
+	 * Returns the cell a coordinate falls in
+	 * @param pos as double - The coordinate on either axis
+	 * @return The index of the cell on that axis
+	 **************************************************************************************************/
+	private int cell(double pos) {
+		return (int) Math.floor(pos / this.cellSize);
+	}
+	/***************************************************************************************************
+	 * Packs a cell's column and row into a single map key
+	 * @param cx as int - The column of the cell
+	 * @param cy as int - The row of the cell
+	 * @return The key of the cell
+	 **************************************************************************************************/
+	private long key(int cx, int cy) {
+		return (((long) cx) << 32) | (cy & 0xFFFFFFFFL);
+	}
+}
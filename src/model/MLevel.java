@@ -5,7 +5,6 @@ package model;
 
 import java.io.Serializable;
 import java.util.HashMap;
-import javafx.scene.image.ImageView;
 
 public class MLevel implements Serializable {
 	private static final long serialVersionUID = -1192971478496616916L;
@@ -16,11 +15,15 @@ public class MLevel implements Serializable {
 	private MLevel west;
 	
 	// stuff the level can hold
+	private MTileMap tileMap;
 	private HashMap<Integer, MPlatform> level;
 	private HashMap<Integer, MToken> tokens;
 	private HashMap<Integer, MCharacter> players;
 	private HashMap<Integer, MCharacter> enemies;
 	
+	//identifies the level among the levels built from the same world files
+	public int ID;
+	
 	//level size
 	public int height;
 	public int width;
@@ -51,6 +54,13 @@ public class MLevel implements Serializable {
 	public void setLevel(HashMap<Integer, MPlatform> level) {
 		this.level = level;
 	}
+	/*******************************************************************************************************
+	 * Sets the static terrain of the level.
+	 * @param tileMap Represents the grid of tiles.
+	 *******************************************************************************************************/
+	public void setTileMap(MTileMap tileMap) {
+		this.tileMap = tileMap;
+	}
 	/*******************************************************************************************************
 	 * Sets the tokens for the level.
 	 * @param tokens Represents the tokens that are added.
@@ -110,19 +120,20 @@ public class MLevel implements Serializable {
 	
 	//==========================[ getters ]==========================
 	/*******************************************************************************************************
-	 * Gets the ImageView object that contains the background image.
-	 * @return ImageView object that holds the background image.
+	 * Gets the path of the background image, the view builds the image from it.
+	 * @return String that holds the path of the background image.
 	 *******************************************************************************************************/
-	public ImageView getBackground() {
-		ImageView img = new ImageView();
-		img.setPreserveRatio(true);
-		img.setFitHeight(this.backgroundHeight);
-		img.setFitWidth(this.backgroundWidth);
-		try {
-			img = new ImageView(this.backgroundPath);
-		} catch (Exception e) {}
-		
-		return img;
+	public String getBackgroundPath() {
+		return this.backgroundPath;
+	}
+	public int getBackgroundHeight() {
+		return this.backgroundHeight;
+	}
+	public int getBackgroundWidth() {
+		return this.backgroundWidth;
+	}
+	public MTileMap getTileMap() {
+		return this.tileMap;
 	}
 	public HashMap<Integer, MPlatform> getLevel() {
 		return this.level;
@@ -0,0 +1,308 @@
+/***************************************************************************************************
+ * This class holds a level as it was read from disk, before any of its objects are created. It can be
+ * parsed from the text level format (the authoring format) or read from the compiled binary format,
+ * which is laid out as follows (big endian):
+ *
+ *   Header:       int magic ("PPLV"), short version, int cols, int rows, int width, int height
+ *   Tile types:   byte count, then per type: char key, int damage, path
+ *   Tile array:   byte layout, then for a flat layout cols*rows bytes, row by row, each the index of
+ *                 a tile type (0 for no tile), or for a chunked layout the chunks of MChunkStore
+ *   Entity table: int count, then per entity: char kind, int col, int row
+ *   Asset index:  byte count, then per asset: char key, path
+ *
+ * Paths are stored as a presence byte, a short length and UTF-8 bytes, relative to the asset folder.
+ * Levels of more than STREAM_TILES tiles are chunked, so their terrain is streamed rather than read.
+ * Version 1 files have no layout byte and are always flat.
+ ***************************************************************************************************/
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Scanner;
+
+public class MLevelTemplate {
+	public final static int MAGIC = 0x50504C56;
+	public final static short VERSION = 2;
+	public final static int STREAM_TILES = 1 << 18;
+	public final static byte FLAT = 0, CHUNKED = 1;
+	public final static String EXTENSION = ".lvb";
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private int cols, rows;
+	private int width, height;
+	private byte[] tiles;
+	private MChunkStore store;
+	private char[] typeKeys;
+	private MTileType[] types;
+	private char[] kinds;
+	private int[] entityCols, entityRows;
+	private String[] assets = new String[128];
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	private MLevelTemplate() {}
+	/***************************************************************************************************
+	 * Parses a level in the text format, one character per block
+	 * @param lvlFile as File - The level file
+	 * @param assets as HashMap - The image of each character of the level
+	 * @return MLevelTemplate of the level
+	 * @throws FileNotFoundException thrown if the level couldn't be accessed
+	 **************************************************************************************************/
+	public static MLevelTemplate parse(File lvlFile, HashMap<Character, String> assets) throws FileNotFoundException {
+		return parse(new Scanner(lvlFile), assets);
+	}
+	/***************************************************************************************************
+	 * Parses a level in the text format, one character per block
+	 * @param lvl as Scanner - The text of the level, closed once read
+	 * @param assets as HashMap - The image of each character of the level
+	 * @return MLevelTemplate of the level
+	 **************************************************************************************************/
+	public static MLevelTemplate parse(Scanner lvl, HashMap<Character, String> assets) {
+		MLevelTemplate template = new MLevelTemplate();
+
+		//Read the rows of the level to size the tile grid
+		ArrayList<String> lines = new ArrayList<String>();
+		while (lvl.hasNextLine()) {
+			lines.add(lvl.nextLine());
+			template.cols = Math.max(template.cols, lines.get(lines.size()-1).length());
+		} lvl.close();
+		template.rows = lines.size();
+		template.tiles = new byte[template.cols * template.rows];
+
+		//Tile types are numbered in order of first appearance, index 0 being an empty cell
+		StringBuilder typeKeys = new StringBuilder().append('\0');
+		ArrayList<MTileType> types = new ArrayList<MTileType>();
+		types.add(null);
+		StringBuilder kinds = new StringBuilder();
+		ArrayList<Integer> entityCols = new ArrayList<Integer>(), entityRows = new ArrayList<Integer>();
+
+		int y=0;
+		int x=0;
+		for (String line: lines) {
+			for (x=0; x<line.length(); x++) {
+				char c = line.charAt(x);
+				if (Character.isDigit(c) || c == 's' || c == '^') {		//Platform [0-9], Damage Platform [^]
+					int tile = 1;
+					while (tile < typeKeys.length() && typeKeys.charAt(tile) != c) {tile++;}
+					if (tile == typeKeys.length()) {
+						typeKeys.append(c);
+						types.add(new MTileType(assets.get(c), (c == '^' ? 2 : 0)));
+					}
+					template.tiles[y*template.cols + x] = (byte) tile;
+				}
+				else if (c == 'T' || c == 'E' || c == 'G' || c == 'S') {	//Tokens [T, E, G] and player [S]
+					kinds.append(c);
+					entityCols.add(x);
+					entityRows.add(y);
+					template.assets[c] = assets.get(c);
+					if (c == 'E') {template.assets['e'] = assets.get('e');}
+				}
+			}
+			y++;
+		}
+		template.width = x*MWorld.BLOCK_SIZE;
+		template.height = y*MWorld.BLOCK_SIZE;
+		template.typeKeys = typeKeys.toString().toCharArray();
+		template.types = types.toArray(new MTileType[types.size()]);
+		template.kinds = kinds.toString().toCharArray();
+		template.entityCols = new int[entityCols.size()];
+		template.entityRows = new int[entityRows.size()];
+		for (int i=0; i<template.kinds.length; i++) {
+			template.entityCols[i] = entityCols.get(i);
+			template.entityRows[i] = entityRows.get(i);
+		}
+		return template;
+	}
+	/***************************************************************************************************
+	 * Reads a level in the compiled binary format by mapping the file into memory
+	 * @param lvbFile as File - The compiled level file
+	 * @param folderPath as String - The folder the asset paths are relative to
+	 * @return MLevelTemplate of the level
+	 * @throws IOException thrown if the file couldn't be read or isn't a compiled level
+	 **************************************************************************************************/
+	public static MLevelTemplate read(File lvbFile, String folderPath) throws IOException {
+		try (FileChannel channel = FileChannel.open(lvbFile.toPath(), StandardOpenOption.READ)) {
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), lvbFile.toString(), folderPath);
+		}
+	}
+	/***************************************************************************************************
+	 * Reads a level in the compiled binary format
+	 * @param in as ByteBuffer - The compiled level, such as a mapped file or a file of an asset archive
+	 * @param name as String - The name of the level, used in errors
+	 * @param folderPath as String - The folder the asset paths are relative to
+	 * @return MLevelTemplate of the level
+	 * @throws IOException thrown if the data isn't a compiled level
+	 **************************************************************************************************/
+	public static MLevelTemplate read(ByteBuffer in, String name, String folderPath) throws IOException {
+		MLevelTemplate template = new MLevelTemplate();
+		try {
+			//Header
+			if (in.getInt() != MAGIC) {throw new IOException("Not a compiled level: " + name);}
+			short version = in.getShort();
+			if (version != 1 && version != VERSION) {throw new IOException("Unsupported compiled level version " + version + ": " + name);}
+			template.cols = in.getInt();
+			template.rows = in.getInt();
+			template.width = in.getInt();
+			template.height = in.getInt();
+
+			//Tile types
+			int typeCount = in.get() & 0xFF;
+			template.typeKeys = new char[typeCount + 1];
+			template.types = new MTileType[typeCount + 1];
+			for (int i=1; i<=typeCount; i++) {
+				template.typeKeys[i] = in.getChar();
+				int damage = in.getInt();
+				template.types[i] = new MTileType(readPath(in, folderPath), damage);
+			}
+
+			//Tile array, copied out in one bulk read or left in the file to be streamed
+			if (version != 1 && in.get() == CHUNKED) {
+				template.store = new MChunkStore(in.duplicate(), in.position(), template.cols, template.rows);
+				in.position(in.position() + MChunkStore.size(in, in.position()));
+			}
+			else {
+				template.tiles = new byte[template.cols * template.rows];
+				in.get(template.tiles);
+			}
+
+			//Entity table
+			int entityCount = in.getInt();
+			template.kinds = new char[entityCount];
+			template.entityCols = new int[entityCount];
+			template.entityRows = new int[entityCount];
+			for (int i=0; i<entityCount; i++) {
+				template.kinds[i] = in.getChar();
+				template.entityCols[i] = in.getInt();
+				template.entityRows[i] = in.getInt();
+			}
+
+			//Asset index
+			int assetCount = in.get() & 0xFF;
+			for (int i=0; i<assetCount; i++) {
+				char key = in.getChar();
+				template.assets[key] = readPath(in, folderPath);
+			}
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupt compiled level: " + name, e);
+		}
+		return template;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public int getCols() {return this.cols;}
+	public int getRows() {return this.rows;}
+	public int getWidth() {return this.width;}
+	public int getHeight() {return this.height;}
+	public int getEntityCount() {return this.kinds.length;}
+	public char getKind(int entity) {return this.kinds[entity];}
+	public int getEntityX(int entity) {return this.entityCols[entity] * MWorld.BLOCK_SIZE;}
+	public int getEntityY(int entity) {return this.entityRows[entity] * MWorld.BLOCK_SIZE;}
+	/***************************************************************************************************
+	 * Returns the image of an entity character
+	 * @param key as char - The character of the entity (or 'e' for the used teleporter)
+	 * @return String of the image path, null if the level has none for the character
+	 **************************************************************************************************/
+	public String getAsset(char key) {return (key < this.assets.length ? this.assets[key] : null);}
+	/***************************************************************************************************
+	 * Returns a new tile map of the level's terrain. The cells (or the chunks they are streamed from) are
+	 * shared between every tile map made from this template, and are never modified.
+	 * @return MTileMap of the level
+	 **************************************************************************************************/
+	public MTileMap makeTileMap() {
+		if (this.store != null) {return new MTileMap(this.store, this.types);}
+		return new MTileMap(this.tiles, this.cols, this.rows, this.types);
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Writes the level in the compiled binary format, chunking the terrain of large levels
+	 * @param lvbFile as File - The compiled level file
+	 * @param folderPath as String - The folder the asset paths are made relative to
+	 * @throws IOException thrown if the file couldn't be written
+	 **************************************************************************************************/
+	public void write(File lvbFile, String folderPath) throws IOException {
+		write(lvbFile, folderPath, (long) this.cols * this.rows > STREAM_TILES);
+	}
+	/***************************************************************************************************
+	 * Writes the level in the compiled binary format
+	 * @param lvbFile as File - The compiled level file
+	 * @param folderPath as String - The folder the asset paths are made relative to
+	 * @param chunked as boolean - Whether the terrain is chunked to be streamed
+	 * @throws IOException thrown if the file couldn't be written
+	 **************************************************************************************************/
+	public void write(File lvbFile, String folderPath, boolean chunked) throws IOException {
+		byte[] tiles = this.tiles;
+		if (tiles == null) {
+			MTileMap tileMap = makeTileMap();
+			tiles = new byte[this.cols * this.rows];
+			for (int i=0; i<tiles.length; i++) {tiles[i] = tileMap.getTile(i % this.cols, i / this.cols);}
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(lvbFile)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeInt(this.cols);
+			out.writeInt(this.rows);
+			out.writeInt(this.width);
+			out.writeInt(this.height);
+
+			out.writeByte(this.types.length - 1);
+			for (int i=1; i<this.types.length; i++) {
+				out.writeChar(this.typeKeys[i]);
+				out.writeInt(this.types[i].getDamage());
+				writePath(out, this.types[i].getFilePath(), folderPath);
+			}
+
+			out.writeByte(chunked ? CHUNKED : FLAT);
+			if (chunked) {MChunkStore.write(out, tiles, this.cols, this.rows);}
+			else {out.write(tiles);}
+
+			out.writeInt(this.kinds.length);
+			for (int i=0; i<this.kinds.length; i++) {
+				out.writeChar(this.kinds[i]);
+				out.writeInt(this.entityCols[i]);
+				out.writeInt(this.entityRows[i]);
+			}
+
+			int assetCount = 0;
+			for (String asset: this.assets) {if (asset != null) {assetCount++;}}
+			out.writeByte(assetCount);
+			for (char key=0; key<this.assets.length; key++) {
+				if (this.assets[key] == null) {continue;}
+				out.writeChar(key);
+				writePath(out, this.assets[key], folderPath);
+			}
+		}
+	}
+	/***************************************************************************************************
+	 * Returns the compiled file of a text level file (the same name with the compiled extension)
+	 * @param lvlFile as File - The text level file
+	 * @return File of the compiled level
+	 **************************************************************************************************/
+	public static File compiledFile(File lvlFile) {
+		String name = lvlFile.getName();
+		if (name.lastIndexOf('.') != -1) {name = name.substring(0, name.lastIndexOf('.'));}
+		return new File(lvlFile.getParentFile(), name + EXTENSION);
+	}
+	private static void writePath(DataOutputStream out, String path, String folderPath) throws IOException {
+		out.writeBoolean(path != null);
+		if (path == null) {return;}
+		if (path.startsWith(folderPath)) {path = path.substring(folderPath.length());}
+		byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+	private static String readPath(ByteBuffer in, String folderPath) {
+		if (in.get() == 0) {return null;}
+		byte[] bytes = new byte[in.getShort() & 0xFFFF];
+		in.get(bytes);
+		return folderPath + new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -3,24 +3,18 @@
  ***************************************************************************************************/
 package model;
 
-import java.io.FileInputStream;
 import java.io.Serializable;
-import javafx.animation.Animation;
-import javafx.geometry.Rectangle2D;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.util.Duration;
 
 public class MPlatform implements Serializable {
 	private static final long serialVersionUID = 2981846869288805060L;
 	
 	//Attribute(s)--------------------------------------------------------------------------------------
 	public int ID;
-	protected transient ImageView img;
-	protected transient Animation animation;
+	private int animationRow = 0;
 	private int damage = 0;
 	private int health = MWorld.DEFAULT_HEALTH;
-	private long timeDamage = System.currentTimeMillis();
+	private long clock = 0;			//Game time in milliseconds
+	private long timeDamage = 0;
 	
 	//Properties to help track collision
 	protected String filePath;
@@ -54,14 +48,26 @@ public class MPlatform implements Serializable {
 	 * @param health as int - The amount of damage that this object can take
 	 **************************************************************************************************/
 	public void setHealth(int health) {
-		long timeDiff = (System.currentTimeMillis() - this.timeDamage) / (long) 100F;	//Seconds since last damage
+		long timeDiff = (this.clock - this.timeDamage) / (long) 100F;	//Tenths of a second since last damage
 		boolean isDamaged = ((timeDiff < 4) ? true : false);			//Only allow damage if it's been .4 seconds
 		
 		if ((health > this.health) || (!isDamaged)) {					//Damage is taken or health is being added
-			if (health < this.health) {this.timeDamage = System.currentTimeMillis();}			//Damage is taken, record when it happened
+			if (health < this.health) {this.timeDamage = this.clock;}			//Damage is taken, record when it happened
 			this.health = health;
 		}
 	}
+	/***************************************************************************************************
+	 * Set the game time, which the delay between damage is measured in. Game time rather than the wall
+	 * clock keeps a replayed game the same however fast it is run.
+	 * @param clock as long - The game time in milliseconds
+	 **************************************************************************************************/
+	public void setClock(long clock) {this.clock = clock;}
+	/***************************************************************************************************
+	 * Set the health of the platform object directly, without the delay between damage, used when a
+	 * saved game is loaded
+	 * @param health as int - The health of the object
+	 **************************************************************************************************/
+	public void restoreHealth(int health) {this.health = health;}
 	/***************************************************************************************************
 	 * Set the position of this instances platform
 	 * @param posX Represents the position on the x axis
@@ -70,11 +76,6 @@ public class MPlatform implements Serializable {
 	public void setPos(double posX, double posY) {
 		this.x = posX;
 		this.y = posY;
-		try {
-			getImage();
-			this.img.setTranslateX(this.x);
-			this.img.setTranslateY(this.y);
-		} catch (NullPointerException e) {e.printStackTrace(System.err);}
 	}
 	/***************************************************************************************************
 	 * Sets the height and width of the platform
@@ -86,20 +87,11 @@ public class MPlatform implements Serializable {
 		this.width = width;
 	}
 	/***************************************************************************************************
-	 * Sets the animation for the sprites
+	 * Sets the row of the sprite sheet that this object should be animated with
 	 * @param offsetY Specifies where the sprite moves
 	 ***************************************************************************************************/
 	public void setAnimation(int offsetY) {
-		this.animation = new SpriteAnimation(
-				this.img,
-
-                Duration.millis(1000),
-                (int) img.getImage().getWidth() / 32, (int) img.getImage().getWidth() / 32,
-                0, offsetY,
-                32, 32
-		);
-		this.animation.setCycleCount(Animation.INDEFINITE);
-		this.animation.play();
+		this.animationRow = offsetY;
 	}
 	
 	//Accessor(s)---------------------------------------------------------------------------------------
@@ -111,21 +103,10 @@ public class MPlatform implements Serializable {
 	public int getHealth() {return this.health;}
 	public double getX() {return this.x;}
 	public double getY() {return this.y;}
-	public ImageView getImage(){
-		if (this.img == null) {
-			try {
-				this.img = new ImageView(new Image(new FileInputStream(this.filePath)));
-				this.img.setViewport(new Rectangle2D(0, 0, width, height));
-				this.img.setPreserveRatio(true);
-				this.img.setFitWidth(this.width);
-				this.img.setTranslateX(this.x);
-				this.img.setTranslateY(this.y);
-				setAnimation(0);
-			} catch (Exception e) {}
-		}
-		//Set the properties of the view node
-		return this.img;
-	}
+	public double getHeight() {return this.height;}
+	public double getWidth() {return this.width;}
+	public String getFilePath() {return this.filePath;}
+	public int getAnimationRow() {return this.animationRow;}
 	/***************************************************************************************************
 	 * Checks if the bounding boxes of this object and the specified object overlap.
 	 * @param obj Represents the object that this object is being compared with.
@@ -133,7 +114,6 @@ public class MPlatform implements Serializable {
 	 ***************************************************************************************************/
 	protected boolean intersects(MPlatform obj) {
 		boolean intersects = false;
-		checkVisable(obj);
 		//Check if the bounding boxes of this object and the specified object overlap
 		try {
 			if (	//this = [   ], obj = (     )
@@ -150,29 +130,4 @@ public class MPlatform implements Serializable {
 		} catch (NullPointerException e) {}
 		return intersects;
 	}
-	/***************************************************************************************************
-	 * This method controls the "fog of war" for a platform and decides whether it is visible or not
-	 * @param obj Represents the object that is being checked
-	 ***************************************************************************************************/
-	private void checkVisable(MPlatform obj) {
-		if (true) {
-			return;
-		}
-		obj.getImage().setVisible(false);
-		int vD = 8; // view distance
-		try {
-			if (	//this = [   ], obj = (     )
-			(																														//If the x line of this overlaps with the obj
-				( (this.x + this.width) <= (obj.x + obj.width * vD) && (this.x + this.width * vD) >= (obj.x) )	//[ ( ] )   : this's right edge lies inside the range of obj.width
-			||  ( (this.x) >= (obj.x) 			   			  && (this.x) <= (obj.x + obj.width)  )		//( [ ) ]	: this's left edge lies inside the range of obj.width
-			)																														//and
-		&&  (																														//the y line of this overlaps with the obj 
-				( (this.y + this.height) <= (obj.y +obj.height * vD) && (this.y + this.height * vD) >= (obj.y))	//[ ( ] )	: this's top edge lies inside the range of obj.height
-			||  ( (this.y) >= (obj.y) 						  && (this.y) <= (obj.y + obj.height)  )	//( [ ) ]	: this's bottom edge lies inside the range of obj.heigth
-			)
-				) 
-			{obj.getImage().setVisible(true);}
-		} catch (NullPointerException e) {}
-		
-	}
 }
@@ -0,0 +1,60 @@
+/***************************************************************************************************
+ * This class keeps the levels that have already been read, shared by every controller, so starting a
+ * new game only has to create the level's objects again. A level is read again once its file has been
+ * modified or the assets it was read with have changed. Templates are never modified once read, so
+ * they are safe to share between worlds and threads.
+ ***************************************************************************************************/
+package model;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MTemplateCache {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private static ConcurrentHashMap<String, Entry> templates = new ConcurrentHashMap<String, Entry>();
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Stores a level that has just been read
+	 * @param lvlFile as File - The level file that was read
+	 * @param assets as HashMap - The assets the level was read with
+	 * @param template as MLevelTemplate - The level read
+	 **************************************************************************************************/
+	public static void put(File lvlFile, HashMap<Character, String> assets, MLevelTemplate template) {
+		templates.put(lvlFile.getAbsolutePath(), new Entry(lvlFile.lastModified(), new HashMap<Character, String>(assets), template));
+	}
+	/***************************************************************************************************
+	 * Forgets every stored level
+	 **************************************************************************************************/
+	public static void clear() {templates.clear();}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns a stored level, as long as it is still current
+	 * @param lvlFile as File - The level file
+	 * @param assets as HashMap - The assets the level is being read with
+	 * @return MLevelTemplate of the level, null if it hasn't been read or is out of date
+	 **************************************************************************************************/
+	public static MLevelTemplate get(File lvlFile, HashMap<Character, String> assets) {
+		Entry entry = templates.get(lvlFile.getAbsolutePath());
+		if (entry == null || entry.modified != lvlFile.lastModified() || !entry.assets.equals(assets)) {return null;}
+		return entry.template;
+	}
+	public static int size() {return templates.size();}
+
+	/***************************************************************************************************
+	 * A stored level along with what it was read from
+	 ***************************************************************************************************/
+	private static class Entry {
+		private final long modified;
+		private final HashMap<Character, String> assets;
+		private final MLevelTemplate template;
+
+		private Entry(long modified, HashMap<Character, String> assets, MLevelTemplate template) {
+			this.modified = modified;
+			this.assets = assets;
+			this.template = template;
+		}
+	}
+}
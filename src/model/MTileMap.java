@@ -0,0 +1,67 @@
+/***************************************************************************************************
+ * This class represents the static terrain of a level as a grid of block sized cells. Each cell only
+ * stores the index of its kind of tile, with the properties of each kind kept in a shared table. The
+ * cells of a very large level are streamed from its compiled file by an MChunkStore instead.
+ ***************************************************************************************************/
+package model;
+
+import java.io.Serializable;
+
+public class MTileMap implements Serializable {
+	private static final long serialVersionUID = -2294175062290880345L;
+	public final static byte EMPTY = 0;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private byte[] tiles;
+	private transient MChunkStore store;
+	private MTileType[] types;
+	private int cols, rows;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate a tile map from the given cells
+	 * @param tiles as byte[] - The kind of tile in each cell, row by row (EMPTY for no tile)
+	 * @param cols as int - The number of cells in each row
+	 * @param rows as int - The number of rows
+	 * @param types as MTileType[] - The properties of each kind of tile, indexed by the cell values
+	 **************************************************************************************************/
+	public MTileMap(byte[] tiles, int cols, int rows, MTileType[] types) {
+		this.tiles = tiles;
+		this.cols = cols;
+		this.rows = rows;
+		this.types = types;
+	}
+	/***************************************************************************************************
+	 * Instantiate a tile map whose cells are streamed from a compiled level
+	 * @param store as MChunkStore - The chunks of the level's cells
+	 * @param types as MTileType[] - The properties of each kind of tile, indexed by the cell values
+	 **************************************************************************************************/
+	public MTileMap(MChunkStore store, MTileType[] types) {
+		this.store = store;
+		this.cols = store.getCols();
+		this.rows = store.getRows();
+		this.types = types;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public int getCols() {return this.cols;}
+	public int getRows() {return this.rows;}
+	public MTileType[] getTypes() {return this.types;}
+	public boolean isStreamed() {return this.store != null;}
+	/***************************************************************************************************
+	 * Returns the kind of tile in a cell
+	 * @param col as int - The column of the cell
+	 * @param row as int - The row of the cell
+	 * @return The index of the kind of tile, EMPTY if there isn't one or the cell is off the map
+	 **************************************************************************************************/
+	public byte getTile(int col, int row) {
+		if (col < 0 || row < 0 || col >= this.cols || row >= this.rows) {return EMPTY;}
+		if (this.store != null) {return this.store.getTile(col, row);}
+		return this.tiles[row * this.cols + col];
+	}
+	/***************************************************************************************************
+	 * Returns the properties of a kind of tile
+	 * @param tile as byte - The index of the kind of tile
+	 * @return MTileType of the tile
+	 **************************************************************************************************/
+	public MTileType getType(byte tile) {return this.types[tile];}
+}
@@ -0,0 +1,29 @@
+/***************************************************************************************************
+ * This class represents one kind of static terrain tile. Every tile of the same kind in a level
+ * shares a single instance of this class.
+ ***************************************************************************************************/
+package model;
+
+import java.io.Serializable;
+
+public class MTileType implements Serializable {
+	private static final long serialVersionUID = 4417303965087102735L;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private final String filePath;
+	private final int damage;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate a kind of tile with the given image and damage
+	 * @param filePath as String - The file location of the image to be used for the tile
+	 * @param damage as int - The damage this tile applies to any character touching it
+	 **************************************************************************************************/
+	public MTileType(String filePath, int damage) {
+		this.filePath = filePath;
+		this.damage = damage;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public String getFilePath() {return this.filePath;}
+	public int getDamage() {return this.damage;}
+}
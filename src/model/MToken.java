@@ -11,6 +11,7 @@ public class MToken extends MPlatform implements Serializable {
 	private String stateChangePath = "";
 	private boolean isConsumable = true;
 	private int groupID = 0;
+	private boolean stateChanged = false;
 	/***************************************************************************************************
 	 * Constructs a token object that represents a token within the game.
 	 * @param posX X position of the token.
@@ -38,12 +39,12 @@ public class MToken extends MPlatform implements Serializable {
 	 * Resets the image to the new image.
 	 ***************************************************************************************************/
 	public void stateChange() {
-		//Reset the image to the new image
+		//Reset the image to the new image, the view picks up the new path when it next draws the token
 		this.filePath = this.stateChangePath;
-		this.img = null;
-		this.getImage();
+		this.stateChanged = true;
 	}
 	
 	public boolean isConsumable() {return this.isConsumable;}
+	public boolean isStateChanged() {return this.stateChanged;}
 	public int getGroupID() {return this.groupID;}
 }
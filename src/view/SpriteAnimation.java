@@ -1,7 +1,7 @@
 /***************************************************************************************************
  * This class represents the animation for sprites.
  ***************************************************************************************************/
-package model;
+package view;
 import javafx.animation.Interpolator;
 import javafx.animation.Transition;
 import javafx.geometry.Rectangle2D;
@@ -0,0 +1,68 @@
+/***************************************************************************************************
+ * This class is an optional build step that packs every image listed in the assets file into a single
+ * atlas image, along with an index of the region each image was placed in. The game loads the atlas
+ * through VImageCache when the index exists.
+ *
+ * Usage: java view.VAtlasBuilder src/ data/assets.dat images/atlas.png data/atlas.dat
+ ***************************************************************************************************/
+package view;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Scanner;
+import javax.imageio.ImageIO;
+
+public class VAtlasBuilder {
+	public final static int ATLAS_WIDTH = 1024;
+
+	/***************************************************************************************************
+	 * Builds the atlas and its index
+	 * @param args as String[] - The folder, assets file, atlas image and atlas index (relative to the folder)
+	 * @throws IOException thrown if an image couldn't be read or the atlas couldn't be written
+	 **************************************************************************************************/
+	public static void main(String[] args) throws IOException {
+		String folderPath = args[0], assetsPath = args[1], atlasPath = args[2], indexPath = args[3];
+
+		//Collect each image of the assets file once (valid mapping: "A=pathToImage.png")
+		ArrayList<String> paths = new ArrayList<String>();
+		Scanner list = new Scanner(new File(folderPath + assetsPath));
+		while (list.hasNextLine()) {
+			String line = list.nextLine();
+			if (line.length() > 2 && line.charAt(1) == '=' && !paths.contains(line.substring(2))) {paths.add(line.substring(2));}
+		} list.close();
+
+		//Place the images in rows from left to right, starting a new row when one is full
+		ArrayList<BufferedImage> images = new ArrayList<BufferedImage>();
+		int[][] places = new int[paths.size()][];
+		int x = 0, y = 0, rowHeight = 0;
+		for (int i=0; i<paths.size(); i++) {
+			BufferedImage img = ImageIO.read(new File(folderPath + paths.get(i)));
+			images.add(img);
+			if (img == null) {continue;}
+			if (x + img.getWidth() > ATLAS_WIDTH) {
+				x = 0;
+				y += rowHeight;
+				rowHeight = 0;
+			}
+			places[i] = new int[] {x, y, img.getWidth(), img.getHeight()};
+			x += img.getWidth();
+			rowHeight = Math.max(rowHeight, img.getHeight());
+		}
+
+		//Draw the atlas and write out where each image went
+		BufferedImage atlas = new BufferedImage(ATLAS_WIDTH, Math.max(1, y + rowHeight), BufferedImage.TYPE_INT_ARGB);
+		PrintWriter index = new PrintWriter(new File(folderPath + indexPath));
+		index.println(atlasPath);
+		for (int i=0; i<paths.size(); i++) {
+			if (places[i] == null) {continue;}
+			atlas.getGraphics().drawImage(images.get(i), places[i][0], places[i][1], null);
+			index.println(paths.get(i) + "=" + places[i][0] + "," + places[i][1] + "," + places[i][2] + "," + places[i][3]);
+		}
+		index.close();
+		ImageIO.write(atlas, "png", new File(folderPath + atlasPath));
+		System.out.println("VAtlasBuilder - Packed " + paths.size() + " images into " + folderPath + atlasPath);
+	}
+}
@@ -0,0 +1,201 @@
+/***************************************************************************************************
+ * This class represents the camera looking at a level. It scrolls the game pane to follow the player
+ * through levels larger than the screen and hides the nodes outside of the view (plus a margin).
+ * Nodes are bucketed by the cells they cover, so when the camera moves only the nodes in the cells
+ * entering or leaving the view are touched.
+ ***************************************************************************************************/
+package view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+
+public class VCamera {
+	public final static int CELL_SIZE = 256;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private Pane root;
+	private Node background;
+	private double viewWidth, viewHeight;
+	private double levelWidth, levelHeight;
+	private double camX = 0, camY = 0;
+	private int margin = CELL_SIZE;
+
+	//Tracking of the nodes by cell
+	private HashMap<Long, ArrayList<Node>> cells = new HashMap<Long, ArrayList<Node>>();
+	private HashMap<Node, int[]> ranges = new HashMap<Node, int[]>();
+	private int[] visible;		//{first column, first row, last column, last row}
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate a camera that scrolls the given pane
+	 * @param root as Pane - The pane holding the level's nodes
+	 * @param viewWidth as double - The width of the screen
+	 * @param viewHeight as double - The height of the screen
+	 **************************************************************************************************/
+	public VCamera(Pane root, double viewWidth, double viewHeight) {
+		this.root = root;
+		this.viewWidth = viewWidth;
+		this.viewHeight = viewHeight;
+		this.levelWidth = viewWidth;
+		this.levelHeight = viewHeight;
+		this.visible = viewRange();
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Sets the size of the level the camera is looking at
+	 * @param levelWidth as double - The width of the level
+	 * @param levelHeight as double - The height of the level
+	 **************************************************************************************************/
+	public void setLevel(double levelWidth, double levelHeight) {
+		this.levelWidth = levelWidth;
+		this.levelHeight = levelHeight;
+	}
+	/***************************************************************************************************
+	 * Sets the node drawn behind the level, which stays fixed to the screen rather than scrolling
+	 * @param background as Node - The background node
+	 **************************************************************************************************/
+	public void setBackground(Node background) {
+		this.background = background;
+		this.background.setTranslateX(this.camX);
+		this.background.setTranslateY(this.camY);
+	}
+	/***************************************************************************************************
+	 * Sets how far beyond the edges of the screen nodes are still shown
+	 * @param margin as int - The margin in pixels
+	 **************************************************************************************************/
+	public void setMargin(int margin) {this.margin = margin;}
+	/***************************************************************************************************
+	 * Starts tracking a node, showing it only while it is in view
+	 * @param node as Node - The node being tracked
+	 **************************************************************************************************/
+	public void track(Node node) {
+		int[] range = range(node);
+		this.ranges.put(node, range);
+		forCells(range, node, true);
+		node.setVisible(overlaps(range, this.visible));
+	}
+	/***************************************************************************************************
+	 * Stops tracking a node
+	 * @param node as Node - The node no longer being tracked
+	 **************************************************************************************************/
+	public void untrack(Node node) {
+		int[] range = this.ranges.remove(node);
+		if (range != null) {forCells(range, node, false);}
+	}
+	/***************************************************************************************************
+	 * Updates the cells of a tracked node after it has moved
+	 * @param node as Node - The node that moved
+	 **************************************************************************************************/
+	public void moved(Node node) {
+		int[] range = this.ranges.get(node);
+		if (range == null) {return;}
+		int[] now = range(node);
+		if (!Arrays.equals(range, now)) {
+			forCells(range, node, false);
+			forCells(now, node, true);
+			this.ranges.put(node, now);
+		}
+		node.setVisible(overlaps(now, this.visible));
+	}
+	/***************************************************************************************************
+	 * Stops tracking every node, used when the level is cleared
+	 **************************************************************************************************/
+	public void clear() {
+		this.cells.clear();
+		this.ranges.clear();
+		this.background = null;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public double getX() {return this.camX;}
+	public double getY() {return this.camY;}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Centres the camera on an area (the player), without showing anything past the level's edges
+	 * @param x as double - The left edge of the area
+	 * @param y as double - The top edge of the area
+	 * @param width as double - The width of the area
+	 * @param height as double - The height of the area
+	 **************************************************************************************************/
+	public void follow(double x, double y, double width, double height) {
+		this.camX = clamp(x + width/2 - this.viewWidth/2, this.levelWidth - this.viewWidth);
+		this.camY = clamp(y + height/2 - this.viewHeight/2, this.levelHeight - this.viewHeight);
+		this.root.setTranslateX(-this.camX);
+		this.root.setTranslateY(-this.camY);
+		if (this.background != null) {
+			this.background.setTranslateX(this.camX);
+			this.background.setTranslateY(this.camY);
+		}
+
+		//Only the cells entering or leaving the view need their nodes updated
+		int[] now = viewRange();
+		if (Arrays.equals(now, this.visible)) {return;}
+		int[] before = this.visible;
+		this.visible = now;
+		for (int col=Math.min(before[0], now[0]); col<=Math.max(before[2], now[2]); col++) {
+			for (int row=Math.min(before[1], now[1]); row<=Math.max(before[3], now[3]); row++) {
+				if (contains(before, col, row) == contains(now, col, row)) {continue;}
+				ArrayList<Node> nodes = this.cells.get(key(col, row));
+				if (nodes == null) {continue;}
+				for (Node node: nodes) {node.setVisible(overlaps(this.ranges.get(node), now));}
+			}
+		}
+	}
+	/***************************************************************************************************
+	 * Returns the cells in view of the camera, including the margin
+	 * @return int[] - {first column, first row, last column, last row}
+	 **************************************************************************************************/
+	private int[] viewRange() {
+		return new int[] {
+				cell(this.camX - this.margin), cell(this.camY - this.margin),
+				cell(this.camX + this.viewWidth + this.margin), cell(this.camY + this.viewHeight + this.margin)};
+	}
+	/***************************************************************************************************
+	 * Adds or removes a node from every cell in a range
+	 * @param range as int[] - The cells covered by the node
+	 * @param node as Node - The node being added or removed
+	 * @param add as boolean - True to add the node, false to remove it
+	 **************************************************************************************************/
+	private void forCells(int[] range, Node node, boolean add) {
+		for (int col=range[0]; col<=range[2]; col++) {
+			for (int row=range[1]; row<=range[3]; row++) {
+				ArrayList<Node> nodes = this.cells.get(key(col, row));
+				if (nodes == null && add) {
+					nodes = new ArrayList<Node>();
+					this.cells.put(key(col, row), nodes);
+				}
+				if (add) {nodes.add(node);}
+				else if (nodes != null) {nodes.remove(node);}
+			}
+		}
+	}
+	/***************************************************************************************************
+	 * Returns the cells covered by a node
+	 * @param node as Node - The node being measured
+	 * @return int[] - {first column, first row, last column, last row}
+	 **************************************************************************************************/
+	private int[] range(Node node) {
+		Bounds b = node.getBoundsInParent();
+		return new int[] {cell(b.getMinX()), cell(b.getMinY()), cell(b.getMaxX()), cell(b.getMaxY())};
+	}
+	private boolean overlaps(int[] a, int[] b) {
+		return a[0] <= b[2] && a[2] >= b[0] && a[1] <= b[3] && a[3] >= b[1];
+	}
+	private boolean contains(int[] range, int col, int row) {
+		return col >= range[0] && col <= range[2] && row >= range[1] && row <= range[3];
+	}
+	private double clamp(double value, double max) {
+		return Math.max(0, Math.min(value, max));
+	}
+	private int cell(double pos) {
+		return (int) Math.floor(pos / CELL_SIZE);
+	}
+	private long key(int col, int row) {
+		return (((long) col) << 32) | (row & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,102 @@
+/***************************************************************************************************
+ * This class draws the heads up display (the health bar and the token counter) into a single canvas.
+ * The health images are decoded once when the HUD is built, and the canvas is only redrawn when one
+ * of the values shown actually changes.
+ ***************************************************************************************************/
+package view;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import model.MWorld;
+
+public class VHud {
+	public final static String[] HEALTH_PATHS = {
+			"images/100%_health.png", "images/75%_health.png", "images/50%_health.png", "images/25%_health.png"};
+	public final static int HEIGHT = 150;
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private Canvas canvas;
+	private Image[] healthImages = new Image[HEALTH_PATHS.length];
+	private Font font = Font.font("Arial", FontWeight.BOLD, 48);
+	private int healthState = 0;
+	private int tokens = 0;
+	private boolean showTokens = false;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate the HUD, decoding every health image up front
+	 * @param width as double - The width of the screen
+	 **************************************************************************************************/
+	public VHud(double width) {
+		this.canvas = new Canvas(width, HEIGHT);
+		for (int i=0; i<HEALTH_PATHS.length; i++) {this.healthImages[i] = VImageCache.getImage(HEALTH_PATHS[i]);}
+		redraw();
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Shows the player's health, redrawing only if the health bar changes
+	 * @param health as int - The player's health
+	 **************************************************************************************************/
+	public void setHealth(int health) {
+		int state = healthState(health);
+		if (state == -1 || state == this.healthState) {return;}
+		this.healthState = state;
+		redraw();
+	}
+	/***************************************************************************************************
+	 * Shows the player's token count, redrawing only if it changed
+	 * @param tokens as int - The number of tokens gathered
+	 **************************************************************************************************/
+	public void setTokens(int tokens) {
+		if (this.showTokens && tokens == this.tokens) {return;}
+		this.tokens = tokens;
+		this.showTokens = true;
+		redraw();
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the canvas the HUD is drawn into
+	 * @return Canvas of the HUD
+	 **************************************************************************************************/
+	public Canvas getCanvas() {return this.canvas;}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns which health image to show, a quarter of the default health per image
+	 * @param health as int - The player's health
+	 * @return int - The index of the health image, -1 to leave the current one shown
+	 **************************************************************************************************/
+	private int healthState(int health) {
+		int quarter = MWorld.DEFAULT_HEALTH/4;
+		if (health <= MWorld.DEFAULT_HEALTH - 4*quarter) {return -1;}
+		for (int i=HEALTH_PATHS.length-1; i>=0; i--) {
+			if (health <= MWorld.DEFAULT_HEALTH - i*quarter) {return i;}
+		}
+		return -1;
+	}
+	/***************************************************************************************************
+	 * Draws the whole HUD in one pass
+	 **************************************************************************************************/
+	private void redraw() {
+		GraphicsContext gc = this.canvas.getGraphicsContext2D();
+		gc.clearRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+
+		//Health bar, scaled to 100 pixels high
+		Image img = this.healthImages[this.healthState];
+		if (img != null && img.getHeight() > 0) {gc.drawImage(img, 25, 25, img.getWidth() * 100 / img.getHeight(), 100);}
+
+		//Token counter
+		if (this.showTokens) {
+			gc.setFill(Color.web("#ffff00"));
+			gc.setFont(this.font);
+			gc.setTextBaseline(VPos.TOP);
+			gc.fillText(Integer.toString(this.tokens), 350, 25);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/***************************************************************************************************
+ * This class holds every decoded image of the game so that each file is only decoded once, no matter
+ * how many sprites or tiles draw it. When an atlas has been built (see VAtlasBuilder) the images it
+ * packs are all served from the one atlas image, each from its own region. Images packed in the asset
+ * archive (see model.MAssetArchive) are decoded from the archive rather than from loose files.
+ ***************************************************************************************************/
+package view;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Scanner;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import model.MAssetArchive;
+
+public class VImageCache {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private static HashMap<String, Image> images = new HashMap<String, Image>();
+	private static HashMap<String, Rectangle2D> regions = new HashMap<String, Rectangle2D>();
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Loads an atlas built by VAtlasBuilder, so the images it packs are drawn from it from now on
+	 * @param folderPath as String - The folder that the asset paths are relative to
+	 * @param indexPath as String - The atlas index file, relative to the folder
+	 * @throws FileNotFoundException thrown if the atlas couldn't be accessed
+	 **************************************************************************************************/
+	public static synchronized void loadAtlas(String folderPath, String indexPath) throws FileNotFoundException {
+		Scanner index = new Scanner(new File(folderPath + indexPath));
+		Image atlas = new Image(new FileInputStream(folderPath + index.nextLine()));
+		//Each line maps an image to its region of the atlas: "path=x,y,width,height"
+		while (index.hasNextLine()) {
+			String line = index.nextLine();
+			int split = line.lastIndexOf('=');
+			if (split == -1) {continue;}
+			String[] rect = line.substring(split + 1).split(",");
+			String path = folderPath + line.substring(0, split);
+			images.put(path, atlas);
+			regions.put(path, new Rectangle2D(Double.parseDouble(rect[0]), Double.parseDouble(rect[1]),
+					Double.parseDouble(rect[2]), Double.parseDouble(rect[3])));
+		} index.close();
+	}
+	/***************************************************************************************************
+	 * Forgets every cached image and atlas region
+	 **************************************************************************************************/
+	public static synchronized void clear() {
+		images.clear();
+		regions.clear();
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the image for a path, decoding it the first time it is asked for. Images in the asset
+	 * archive are read from it, paths of files on disk are read directly, and anything else is resolved
+	 * as a URL or class path resource. Safe to call from any thread.
+	 * @param path as String - The path of the image
+	 * @return Image of the path (the atlas when the image is packed), null if it couldn't be decoded
+	 **************************************************************************************************/
+	public static Image getImage(String path) {
+		if (path == null) {return null;}
+		synchronized (VImageCache.class) {
+			if (images.containsKey(path)) {return images.get(path);}
+		}
+		//Decode outside of the lock, so a slow decode doesn't hold up lookups of other images
+		Image img = null;
+		try {
+			InputStream packed = MAssetArchive.open(path);
+			if (packed != null) {img = new Image(packed);}
+			else if (new File(path).isFile()) {img = new Image(new FileInputStream(path));}
+			else {img = new Image(path);}
+			if (img.isError()) {img = null;}
+		} catch (Exception e) {}
+		synchronized (VImageCache.class) {
+			images.putIfAbsent(path, img);
+			return images.get(path);
+		}
+	}
+	/***************************************************************************************************
+	 * Returns the region of the image returned by getImage that holds the image of a path
+	 * @param path as String - The path of the image
+	 * @return Rectangle2D of the region, the whole image when it isn't packed in an atlas
+	 **************************************************************************************************/
+	public static Rectangle2D getRegion(String path) {
+		synchronized (VImageCache.class) {
+			if (regions.containsKey(path)) {return regions.get(path);}
+		}
+		Image img = getImage(path);
+		Rectangle2D region = (img == null ? Rectangle2D.EMPTY : new Rectangle2D(0, 0, img.getWidth(), img.getHeight()));
+		synchronized (VImageCache.class) {
+			regions.putIfAbsent(path, region);
+			return regions.get(path);
+		}
+	}
+}
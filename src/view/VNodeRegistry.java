@@ -0,0 +1,72 @@
+/***************************************************************************************************
+ * This class keeps track of the sprite drawing each object of the level by the object's ID, so the view
+ * can add, find and remove sprites without searching the scene graph. Sprites that are removed, or left
+ * behind by a level transition, are pooled and rebound to the objects of the next level.
+ ***************************************************************************************************/
+package view;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import model.MPlatform;
+
+public class VNodeRegistry {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private HashMap<Integer, VSprite> active = new HashMap<Integer, VSprite>();
+	private ArrayDeque<VSprite> pool = new ArrayDeque<VSprite>();
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Registers a sprite for an object, taking one from the pool when there is one
+	 * @param obj as MPlatform - The model object being drawn
+	 * @return VSprite that draws the object
+	 **************************************************************************************************/
+	public VSprite add(MPlatform obj) {
+		VSprite sprite = this.pool.poll();
+		if (sprite == null) {sprite = new VSprite(obj);}
+		else {sprite.bind(obj);}
+		this.active.put(obj.ID, sprite);
+		return sprite;
+	}
+	/***************************************************************************************************
+	 * Unregisters the sprite of an object and returns it to the pool
+	 * @param ID as int - The ID of the object no longer drawn
+	 * @return VSprite that drew the object, null if the object had no sprite
+	 **************************************************************************************************/
+	public VSprite remove(int ID) {
+		VSprite sprite = this.active.remove(ID);
+		if (sprite != null) {
+			sprite.release();
+			this.pool.push(sprite);
+		}
+		return sprite;
+	}
+	/***************************************************************************************************
+	 * Returns every registered sprite to the pool, used when the level changes
+	 **************************************************************************************************/
+	public void releaseAll() {
+		for (VSprite sprite: this.active.values()) {
+			sprite.release();
+			this.pool.push(sprite);
+		}
+		this.active.clear();
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the sprite drawing an object
+	 * @param ID as int - The ID of the object
+	 * @return VSprite of the object, null if the object has no sprite
+	 **************************************************************************************************/
+	public VSprite get(int ID) {return this.active.get(ID);}
+	/***************************************************************************************************
+	 * Returns whether an object has a sprite in the game
+	 * @param ID as int - The ID of the object
+	 * @return boolean - True if the object is drawn
+	 **************************************************************************************************/
+	public boolean contains(int ID) {return this.active.containsKey(ID);}
+	/***************************************************************************************************
+	 * Returns how many sprites are waiting in the pool
+	 * @return int - The size of the pool
+	 **************************************************************************************************/
+	public int getPooled() {return this.pool.size();}
+}
@@ -0,0 +1,117 @@
+/***************************************************************************************************
+ * This class prepares the levels next to the one being played while the player is still in it. On a
+ * background thread it decodes the images the neighbouring levels use and builds the nodes of their
+ * terrain and background off the scene graph, so moving to one of them only swaps in nodes that are
+ * already built. Anything that hasn't been prepared yet is built on demand instead.
+ ***************************************************************************************************/
+package view;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.scene.image.ImageView;
+import model.MCharacter;
+import model.MLevel;
+import model.MPlatform;
+import model.MTileMap;
+import model.MToken;
+
+public class VPrefetcher {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private boolean batched;
+	private ConcurrentHashMap<MTileMap, VTileMap> tiles = new ConcurrentHashMap<MTileMap, VTileMap>();
+	private ConcurrentHashMap<MLevel, ImageView> backgrounds = new ConcurrentHashMap<MLevel, ImageView>();
+	private ExecutorService worker;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate a prefetcher
+	 * @param batched as boolean - Whether terrain is painted into chunks or given a node per tile
+	 **************************************************************************************************/
+	public VPrefetcher(boolean batched) {
+		this.batched = batched;
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Forgets every level prepared, used when a new world is started
+	 **************************************************************************************************/
+	public void clear() {
+		this.tiles.clear();
+		this.backgrounds.clear();
+	}
+	/***************************************************************************************************
+	 * Stops the background thread
+	 **************************************************************************************************/
+	public synchronized void shutdown() {
+		if (this.worker != null) {this.worker.shutdownNow();}
+		this.worker = null;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Returns the drawing of a level's terrain, building it if it hasn't been prepared
+	 * @param tileMap as MTileMap - The terrain of the level
+	 * @return VTileMap of the terrain
+	 **************************************************************************************************/
+	public VTileMap getTiles(MTileMap tileMap) {
+		return this.tiles.computeIfAbsent(tileMap, t -> new VTileMap(t, this.batched));
+	}
+	/***************************************************************************************************
+	 * Returns the node showing a level's background image, building it if it hasn't been prepared
+	 * @param level as MLevel - The level whose background is drawn
+	 * @return ImageView of the background
+	 **************************************************************************************************/
+	public ImageView getBackground(MLevel level) {
+		return this.backgrounds.computeIfAbsent(level, l -> {
+			ImageView img = new ImageView();
+			img.setPreserveRatio(true);
+			img.setFitHeight(l.getBackgroundHeight());
+			img.setFitWidth(l.getBackgroundWidth());
+			try {
+				img = new ImageView(VImageCache.getImage(l.getBackgroundPath()));
+			} catch (Exception e) {}
+			return img;
+		});
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Starts preparing the levels to the north, east, south and west of the level entered
+	 * @param level as MLevel - The level the player has entered
+	 **************************************************************************************************/
+	public void prefetch(MLevel level) {
+		for (MLevel neighbour: new MLevel[] {level.getNorth(), level.getEast(), level.getSouth(), level.getWest()}) {
+			if (neighbour == null || this.backgrounds.containsKey(neighbour)) {continue;}
+			getWorker().execute(() -> prepare(neighbour));
+		}
+	}
+	/***************************************************************************************************
+	 * Decodes the images of a level and builds its background and terrain nodes. Preparing is only a
+	 * head start, so a level changing underneath it is simply left for the view to build.
+	 * @param level as MLevel - The level being prepared
+	 **************************************************************************************************/
+	private void prepare(MLevel level) {
+		try {
+			ArrayList<MPlatform> objects = new ArrayList<MPlatform>(level.getLevel().values());
+			for (MToken t: level.getTokens().values()) {objects.add(t);}
+			for (MCharacter c: level.getEnemies().values()) {objects.add(c);}
+			for (MCharacter c: level.getPlayers().values()) {objects.add(c);}
+			for (MPlatform obj: objects) {VImageCache.getImage(obj.getFilePath());}
+
+			getBackground(level);
+			if (level.getTileMap() != null) {getTiles(level.getTileMap()).getNodes();}
+		} catch (RuntimeException e) {}
+	}
+	private synchronized ExecutorService getWorker() {
+		if (this.worker == null) {
+			this.worker = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "VPrefetcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.worker;
+	}
+}
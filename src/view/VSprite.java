@@ -0,0 +1,114 @@
+/***************************************************************************************************
+ * This class binds a platform, token or character from the model to the node that draws it. The
+ * model only holds plain data, so the sprite copies the position, image and animation row over to
+ * the node whenever the view syncs it.
+ ***************************************************************************************************/
+package view;
+
+import java.util.Objects;
+import javafx.animation.Animation;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.ImageView;
+import javafx.util.Duration;
+import model.MPlatform;
+
+public class VSprite {
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private MPlatform obj;
+	private ImageView img = new ImageView();
+	private Animation animation;
+	private String boundPath;
+	private Rectangle2D region = Rectangle2D.EMPTY;
+	private int boundRow = -1;
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate a sprite for the given model object and draw it at its current state
+	 * @param obj as MPlatform - The model object being drawn
+	 **************************************************************************************************/
+	public VSprite(MPlatform obj) {
+		bind(obj);
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Points the sprite at another model object, reusing its node, and draws the object's current state
+	 * @param obj as MPlatform - The model object being drawn
+	 **************************************************************************************************/
+	public void bind(MPlatform obj) {
+		this.obj = obj;
+		this.boundPath = null;
+		this.boundRow = -1;
+		this.img.setImage(null);
+		sync();
+	}
+	/***************************************************************************************************
+	 * Stops the sprite's animation and lets go of its model object, so the sprite can be pooled
+	 **************************************************************************************************/
+	public void release() {
+		if (this.animation != null) {this.animation.stop();}
+		this.animation = null;
+		this.obj = null;
+	}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public MPlatform getObject() {return this.obj;}
+	public ImageView getImage() {return this.img;}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Copies the state of the model object onto the node. The image is only reloaded when the object's
+	 * file path changes and the animation is only rebuilt when its row of the sprite sheet changes.
+	 **************************************************************************************************/
+	public void sync() {
+		if (!Objects.equals(this.obj.getFilePath(), this.boundPath)) {
+			this.boundPath = this.obj.getFilePath();
+			this.boundRow = -1;
+			this.img.setImage(VImageCache.getImage(this.boundPath));
+			this.region = VImageCache.getRegion(this.boundPath);
+			this.img.setViewport(new Rectangle2D(this.region.getMinX(), this.region.getMinY(), this.obj.getWidth(), this.obj.getHeight()));
+			this.img.setPreserveRatio(true);
+			this.img.setFitWidth(this.obj.getWidth());
+		}
+		if (this.obj.getAnimationRow() != this.boundRow) {
+			this.boundRow = this.obj.getAnimationRow();
+			animate();
+		}
+		this.img.setTranslateX(this.obj.getX());
+		this.img.setTranslateY(this.obj.getY());
+	}
+	/***************************************************************************************************
+	 * Draws the node between two positions, used to smooth movement between ticks
+	 * @param prevX as double - The horizontal position at the start of the tick
+	 * @param prevY as double - The vertical position at the start of the tick
+	 * @param alpha as double - How far to draw the node between the previous and current position
+	 **************************************************************************************************/
+	public void interpolate(double prevX, double prevY, double alpha) {
+		this.img.setTranslateX(prevX + (this.obj.getX() - prevX) * alpha);
+		this.img.setTranslateY(prevY + (this.obj.getY() - prevY) * alpha);
+	}
+	/***************************************************************************************************
+	 * Starts the animation through the current row of the sprite sheet. Sheets with a single frame
+	 * aren't animated.
+	 **************************************************************************************************/
+	private void animate() {
+		if (this.animation != null) {this.animation.stop();}
+		this.animation = null;
+		if (this.img.getImage() == null) {return;}
+
+		int frames = (int) this.region.getWidth() / 32;
+		if (frames <= 1) {
+			this.img.setViewport(new Rectangle2D(this.region.getMinX(), this.region.getMinY() + this.boundRow, 32, 32));
+			return;
+		}
+		this.animation = new SpriteAnimation(
+				this.img,
+				Duration.millis(1000),
+				frames, frames,
+				(int) this.region.getMinX(), (int) this.region.getMinY() + this.boundRow,
+				32, 32
+		);
+		this.animation.setCycleCount(Animation.INDEFINITE);
+		this.animation.play();
+	}
+}
@@ -0,0 +1,176 @@
+/***************************************************************************************************
+ * This class draws the static terrain of a level. In batched mode the tiles are painted once into
+ * block sized canvases (chunks), so the scene graph holds a handful of nodes per level no matter how
+ * many tiles it has. Otherwise every tile gets its own ImageView. The terrain of a streamed level is
+ * always painted into chunks, and only the chunks around the camera are kept in the scene.
+ ***************************************************************************************************/
+package view;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import model.MTileMap;
+import model.MWorld;
+
+public class VTileMap {
+	public final static int CHUNK_TILES = 16;	//Width and height of a chunk in tiles
+	//Attribute(s)--------------------------------------------------------------------------------------
+	private MTileMap tileMap;
+	private boolean batched;
+	private Image[] images;
+	private Rectangle2D[] regions;
+	private ArrayList<Node> nodes;
+	private HashMap<Long, Node> shown = new HashMap<Long, Node>();	//Chunks of a streamed level in the scene, null when empty
+
+	//Constructor(s)------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Instantiate the drawing of a tile map
+	 * @param tileMap as MTileMap - The terrain being drawn
+	 * @param batched as boolean - Whether tiles are painted into chunks or given a node each
+	 **************************************************************************************************/
+	public VTileMap(MTileMap tileMap, boolean batched) {
+		this.tileMap = tileMap;
+		this.batched = batched;
+	}
+
+	//Mutator(s)----------------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Forgets the chunks of a streamed level in the scene, used when the scene has been cleared
+	 **************************************************************************************************/
+	public synchronized void reset() {this.shown.clear();}
+
+	//Accessor(s)---------------------------------------------------------------------------------------
+	public boolean isStreamed() {return this.tileMap.isStreamed();}
+	/***************************************************************************************************
+	 * Returns the nodes that draw the terrain, building them the first time they are asked for. A caller
+	 * asking while another thread is building them waits for that build rather than starting another.
+	 * The terrain of a streamed level isn't built in advance, see stream.
+	 * @return ArrayList of Nodes - The chunks, or the tiles when not batched
+	 **************************************************************************************************/
+	public synchronized ArrayList<Node> getNodes() {
+		if (this.nodes == null) {
+			loadImages();
+			if (isStreamed()) {this.nodes = new ArrayList<Node>();}
+			else {this.nodes = (this.batched ? buildChunks() : buildTiles());}
+		}
+		return this.nodes;
+	}
+
+	//Functional Method(s)------------------------------------------------------------------------------
+	/***************************************************************************************************
+	 * Brings the chunks of a streamed level in the scene up to date with the area in view. Chunks that
+	 * come within a chunk of the area are built, and chunks more than two chunks away are dropped.
+	 * @param x as double - The left edge of the area in view
+	 * @param y as double - The top edge of the area in view
+	 * @param width as double - The width of the area in view
+	 * @param height as double - The height of the area in view
+	 * @param added as ArrayList of Nodes - Receives the chunks to add to the scene
+	 * @param removed as ArrayList of Nodes - Receives the chunks to remove from the scene
+	 **************************************************************************************************/
+	public synchronized void stream(double x, double y, double width, double height, ArrayList<Node> added, ArrayList<Node> removed) {
+		getNodes();
+		int size = CHUNK_TILES * MWorld.BLOCK_SIZE;
+		int firstCol = (int) Math.floor(x / size), firstRow = (int) Math.floor(y / size);
+		int lastCol = (int) Math.floor((x + width) / size), lastRow = (int) Math.floor((y + height) / size);
+
+		//Drop the chunks that are well out of view
+		for (Long key: new ArrayList<Long>(this.shown.keySet())) {
+			int chunkCol = (int) (key >> 32), chunkRow = (int) (long) key;
+			if (chunkCol < firstCol-2 || chunkCol > lastCol+2 || chunkRow < firstRow-2 || chunkRow > lastRow+2) {
+				Node chunk = this.shown.remove(key);
+				if (chunk != null) {removed.add(chunk);}
+			}
+		}
+		//Build the chunks coming into view
+		for (int chunkRow=Math.max(0, firstRow-1); chunkRow<=lastRow+1 && chunkRow*CHUNK_TILES<this.tileMap.getRows(); chunkRow++) {
+			for (int chunkCol=Math.max(0, firstCol-1); chunkCol<=lastCol+1 && chunkCol*CHUNK_TILES<this.tileMap.getCols(); chunkCol++) {
+				long key = (((long) chunkCol) << 32) | (chunkRow & 0xFFFFFFFFL);
+				if (this.shown.containsKey(key)) {continue;}
+				Canvas chunk = buildChunk(chunkCol, chunkRow);
+				this.shown.put(key, chunk);
+				if (chunk != null) {added.add(chunk);}
+			}
+		}
+	}
+
+	/***************************************************************************************************
+	 * Looks up the image of each kind of tile in the image cache
+	 **************************************************************************************************/
+	private void loadImages() {
+		this.images = new Image[this.tileMap.getTypes().length];
+		this.regions = new Rectangle2D[this.images.length];
+		for (int i=1; i<this.images.length; i++) {
+			this.images[i] = VImageCache.getImage(this.tileMap.getType((byte) i).getFilePath());
+			this.regions[i] = VImageCache.getRegion(this.tileMap.getType((byte) i).getFilePath());
+		}
+	}
+	/***************************************************************************************************
+	 * Paints the tiles into one canvas per chunk, skipping chunks without any tiles
+	 * @return ArrayList of Nodes - The chunk canvases
+	 **************************************************************************************************/
+	private ArrayList<Node> buildChunks() {
+		ArrayList<Node> chunks = new ArrayList<Node>();
+		for (int chunkRow=0; chunkRow*CHUNK_TILES<this.tileMap.getRows(); chunkRow++) {
+			for (int chunkCol=0; chunkCol*CHUNK_TILES<this.tileMap.getCols(); chunkCol++) {
+				Canvas chunk = buildChunk(chunkCol, chunkRow);
+				if (chunk != null) {chunks.add(chunk);}
+			}
+		}
+		return chunks;
+	}
+	/***************************************************************************************************
+	 * Paints the tiles of a chunk into a canvas
+	 * @param chunkCol as int - The column of the chunk
+	 * @param chunkRow as int - The row of the chunk
+	 * @return Canvas of the chunk, null if the chunk has no tiles
+	 **************************************************************************************************/
+	private Canvas buildChunk(int chunkCol, int chunkRow) {
+		int size = CHUNK_TILES * MWorld.BLOCK_SIZE;
+		Canvas chunk = null;
+		for (int row=chunkRow*CHUNK_TILES; row<(chunkRow+1)*CHUNK_TILES; row++) {
+			for (int col=chunkCol*CHUNK_TILES; col<(chunkCol+1)*CHUNK_TILES; col++) {
+				byte tile = this.tileMap.getTile(col, row);
+				Image img = this.images[tile];
+				if (img == null) {continue;}
+				Rectangle2D region = this.regions[tile];
+				if (chunk == null) {
+					chunk = new Canvas(size, size);
+					chunk.setTranslateX(chunkCol * size);
+					chunk.setTranslateY(chunkRow * size);
+				}
+				GraphicsContext gc = chunk.getGraphicsContext2D();
+				gc.drawImage(img,
+						region.getMinX(), region.getMinY(), Math.min(MWorld.BLOCK_SIZE, region.getWidth()), Math.min(MWorld.BLOCK_SIZE, region.getHeight()),
+						(col - chunkCol*CHUNK_TILES) * MWorld.BLOCK_SIZE, (row - chunkRow*CHUNK_TILES) * MWorld.BLOCK_SIZE,
+						MWorld.BLOCK_SIZE, MWorld.BLOCK_SIZE);
+			}
+		}
+		return chunk;
+	}
+	/***************************************************************************************************
+	 * Gives every tile its own node
+	 * @return ArrayList of Nodes - The tile nodes
+	 **************************************************************************************************/
+	private ArrayList<Node> buildTiles() {
+		ArrayList<Node> tiles = new ArrayList<Node>();
+		for (int row=0; row<this.tileMap.getRows(); row++) {
+			for (int col=0; col<this.tileMap.getCols(); col++) {
+				byte tile = this.tileMap.getTile(col, row);
+				if (tile == MTileMap.EMPTY) {continue;}
+				ImageView img = new ImageView(this.images[tile]);
+				img.setViewport(new Rectangle2D(this.regions[tile].getMinX(), this.regions[tile].getMinY(), MWorld.BLOCK_SIZE, MWorld.BLOCK_SIZE));
+				img.setPreserveRatio(true);
+				img.setFitWidth(MWorld.BLOCK_SIZE);
+				img.setTranslateX(col * MWorld.BLOCK_SIZE);
+				img.setTranslateY(row * MWorld.BLOCK_SIZE);
+				tiles.add(img);
+			}
+		}
+		return tiles;
+	}
+}